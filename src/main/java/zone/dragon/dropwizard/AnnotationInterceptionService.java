@@ -30,7 +30,11 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -39,23 +43,39 @@ import org.aopalliance.intercept.ConstructorInterceptor;
 import org.aopalliance.intercept.Interceptor;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.glassfish.hk2.api.ActiveDescriptor;
+import org.glassfish.hk2.api.Descriptor;
+import org.glassfish.hk2.api.DescriptorType;
 import org.glassfish.hk2.api.DescriptorVisibility;
+import org.glassfish.hk2.api.DynamicConfigurationListener;
 import org.glassfish.hk2.api.Filter;
 import org.glassfish.hk2.api.InterceptionService;
 import org.glassfish.hk2.api.IterableProvider;
+import org.glassfish.hk2.api.ServiceHandle;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.api.Visibility;
 import org.glassfish.hk2.utilities.reflection.ReflectionHelper;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
 
 import lombok.NonNull;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Interception service that binds method and constructor interceptors by annotation. This service allows for interception based on any
  * annotation, and additionally allows for interceptors to be customized based upon properties in the annotation on each method or
  * constructor.
+ * <p>
+ * Interceptor factories are indexed by the annotation they support, and the interceptors built for each method or constructor are cached;
+ * Both are rebuilt if the set of registered factories changes. Services are only considered for interception if their implementation class
+ * carries at least one annotation supported by a registered factory, either on the class, its superclasses and interfaces, or on one of
+ * their methods or constructors.
  *
  * @see AnnotatedMethodInterceptorFactory
  * @see AnnotatedConstructorInterceptorFactory
@@ -63,93 +83,368 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Singleton
 @Visibility(DescriptorVisibility.LOCAL)
-public class AnnotationInterceptionService implements InterceptionService {
+public class AnnotationInterceptionService implements InterceptionService, DynamicConfigurationListener {
     protected interface InterceptorFactory<F, S, T, R> {
         R apply(F first, S second, T third);
     }
 
-    private final IterableProvider<AnnotatedMethodInterceptorFactory<?>> annotatedMethodInterceptorFactories;
+    @SuppressWarnings("rawtypes")
+    private final InterceptorIndex<Method, MethodInterceptor, AnnotatedMethodInterceptorFactory> methodInterceptors;
 
-    private final IterableProvider<AnnotatedConstructorInterceptorFactory<?>> annotatedConstructorInterceptorFactories;
+    @SuppressWarnings("rawtypes")
+    private final InterceptorIndex<Constructor<?>, ConstructorInterceptor, AnnotatedConstructorInterceptorFactory> constructorInterceptors;
+
+    private final Cache<Class<?>, Set<Class<? extends Annotation>>> annotationTypeCache = CacheBuilder.newBuilder().weakKeys().build();
+
+    private final Filter descriptorFilter = this::isInterceptable;
 
     private final ServiceLocator locator;
 
+    @SuppressWarnings("unchecked")
     @Inject
     public AnnotationInterceptionService(
         @NonNull IterableProvider<AnnotatedMethodInterceptorFactory<?>> annotatedMethodInterceptorFactories,
         @NonNull IterableProvider<AnnotatedConstructorInterceptorFactory<?>> annotatedConstructorInterceptorFactories,
         @NonNull ServiceLocator locator
     ) {
-        this.annotatedMethodInterceptorFactories = annotatedMethodInterceptorFactories;
-        this.annotatedConstructorInterceptorFactories = annotatedConstructorInterceptorFactories;
+        this.methodInterceptors = new InterceptorIndex<>(
+            annotatedMethodInterceptorFactories,
+            AnnotatedMethodInterceptorFactory.class,
+            AnnotatedMethodInterceptorFactory::provide
+        );
+        this.constructorInterceptors = new InterceptorIndex<>(
+            annotatedConstructorInterceptorFactories,
+            AnnotatedConstructorInterceptorFactory.class,
+            AnnotatedConstructorInterceptorFactory::provide
+        );
         this.locator = locator;
     }
 
     @Override
     public Filter getDescriptorFilter() {
-        return descriptor -> true;
+        return descriptorFilter;
+    }
+
+    /**
+     * Determines if a service might need interceptors, so that HK2 can skip building proxies for services that will never be intercepted
+     *
+     * @param descriptor
+     *     Descriptor of the service being created
+     *
+     * @return {@code true} if the service has an annotation supported by any registered interceptor factory
+     */
+    protected boolean isInterceptable(Descriptor descriptor) {
+        // HK2 only intercepts services that it constructs itself
+        if (descriptor.getDescriptorType() != DescriptorType.CLASS) {
+            return false;
+        }
+        // Without the implementation class, fall back to letting HK2 ask about each method and constructor
+        if (!(descriptor instanceof ActiveDescriptor) || !((ActiveDescriptor<?>) descriptor).isReified()) {
+            return true;
+        }
+        Class<?> implementationClass = ((ActiveDescriptor<?>) descriptor).getImplementationClass();
+        if (implementationClass == null) {
+            return true;
+        }
+        try {
+            Set<Class<? extends Annotation>> annotationTypes = annotationTypeCache.get(
+                implementationClass,
+                () -> findAnnotationTypes(implementationClass)
+            );
+            return methodInterceptors.isIndexed(annotationTypes) || constructorInterceptors.isIndexed(annotationTypes);
+        } catch (ExecutionException e) {
+            log.warn("Failed to inspect annotations on {}", implementationClass, e);
+            return true;
+        }
+    }
+
+    /**
+     * Collects the types of all annotations on a class, and on its methods and constructors, including those on its superclasses and
+     * interfaces; Methods inherited from a supertype are intercepted using the annotations on that supertype, even if they are not
+     * {@link java.lang.annotation.Inherited}
+     *
+     * @param implementationClass
+     *     Class to inspect
+     *
+     * @return All annotation types found on the class
+     */
+    protected Set<Class<? extends Annotation>> findAnnotationTypes(Class<?> implementationClass) {
+        ImmutableSet.Builder<Class<? extends Annotation>> annotationTypes = ImmutableSet.builder();
+        addAnnotationTypes(implementationClass.getAnnotations(), annotationTypes);
+        for (Constructor<?> constructor : implementationClass.getDeclaredConstructors()) {
+            addAnnotationTypes(constructor.getAnnotations(), annotationTypes);
+        }
+        // Public methods include those declared by interfaces
+        for (Method method : implementationClass.getMethods()) {
+            addAnnotationTypes(method.getAnnotations(), annotationTypes);
+        }
+        for (Class<?> type : TypeToken.of(implementationClass).getTypes().rawTypes()) {
+            if (type == Object.class) {
+                continue;
+            }
+            addAnnotationTypes(type.getAnnotations(), annotationTypes);
+            for (Method method : type.getDeclaredMethods()) {
+                addAnnotationTypes(method.getAnnotations(), annotationTypes);
+            }
+        }
+        return annotationTypes.build();
+    }
+
+    private void addAnnotationTypes(Annotation[] annotations, ImmutableSet.Builder<Class<? extends Annotation>> annotationTypes) {
+        for (Annotation annotation : annotations) {
+            annotationTypes.add(annotation.annotationType());
+        }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public List<MethodInterceptor> getMethodInterceptors(Method method) {
-        return getInterceptors(
-            method,
-            annotatedMethodInterceptorFactories,
-            AnnotatedMethodInterceptorFactory.class,
-            AnnotatedMethodInterceptorFactory::provide
-        );
+        return methodInterceptors.getInterceptors(method);
     }
 
     @Override
     public List<ConstructorInterceptor> getConstructorInterceptors(Constructor<?> constructor) {
-        return getInterceptors(
-            constructor,
-            annotatedConstructorInterceptorFactories,
-            AnnotatedConstructorInterceptorFactory.class,
-            AnnotatedConstructorInterceptorFactory::provide
-        );
+        return constructorInterceptors.getInterceptors(constructor);
     }
 
-    protected <T extends Executable, I extends Interceptor, F> List<I> getInterceptors(
-        T interceptee,
-        IterableProvider<? extends F> factoryProviders,
-        Class<F> interceptorType,
-        InterceptorFactory<F, T, Annotation, I> interceptorProvider
-    ) {
-        List<I> interceptors = Lists.newArrayList();
-        factoryProviders.handleIterator().forEach(handle -> {
-            // Make sure descriptor is fully reified
-            ActiveDescriptor<?> descriptor = handle.getActiveDescriptor();
-            if (!descriptor.isReified()) {
-                descriptor = locator.reifyDescriptor(descriptor);
-            }
-            // Check the type of annotation supported by the factory
-            for (Type contract : descriptor.getContractTypes()) {
-                if (ReflectionHelper.getRawClass(contract) == interceptorType) {
-                    Class<? extends Annotation> annotationClass = (Class<? extends Annotation>) ReflectionHelper.getRawClass(
-                        ReflectionHelper.getFirstTypeArgument(contract));
-                    // Might be Object.class if getRawClass found an unbound type variable or wildcard
-                    if (!Annotation.class.isAssignableFrom(annotationClass)) {
-                        log.warn("Unable to determine annotation binder from contract type {}", annotationClass);
-                        return;
-                    }
-                    Annotation ann = interceptee.getAnnotation(annotationClass);
-                    if (ann == null) {
-                        ann = interceptee.getDeclaringClass().getAnnotation(annotationClass);
-                    }
-                    if (ann != null) {
-                        // Create the factory and produce an interceptor
-                        F factory = handle.getService();
-                        I interceptor = interceptorProvider.apply(factory, interceptee, ann);
-                        if (interceptor != null) {
-                            interceptors.add(interceptor);
-                        }
+    @Override
+    public void configurationChanged() {
+        methodInterceptors.invalidate();
+        constructorInterceptors.invalidate();
+    }
+
+    /**
+     * Determines the annotation supported by an interceptor factory
+     *
+     * @param handle
+     *     Handle to the interceptor factory
+     * @param interceptorType
+     *     Raw factory contract, such as {@link AnnotatedMethodInterceptorFactory}
+     *
+     * @return The annotation type the factory is bound to, or {@code null} if it could not be determined
+     */
+    @SuppressWarnings("unchecked")
+    protected Class<? extends Annotation> getAnnotationType(ServiceHandle<?> handle, Class<?> interceptorType) {
+        // Make sure descriptor is fully reified
+        ActiveDescriptor<?> descriptor = handle.getActiveDescriptor();
+        if (!descriptor.isReified()) {
+            descriptor = locator.reifyDescriptor(descriptor);
+        }
+        // Check the type of annotation supported by the factory
+        for (Type contract : descriptor.getContractTypes()) {
+            if (ReflectionHelper.getRawClass(contract) == interceptorType) {
+                Class<?> annotationClass = ReflectionHelper.getRawClass(ReflectionHelper.getFirstTypeArgument(contract));
+                // Might be Object.class if getRawClass found an unbound type variable or wildcard
+                if (!Annotation.class.isAssignableFrom(annotationClass)) {
+                    log.warn("Unable to determine annotation binder from contract type {}", annotationClass);
+                    return null;
+                }
+                return (Class<? extends Annotation>) annotationClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Interceptor factory that has been matched to the annotation it supports
+     *
+     * @param <F>
+     *     Type of interceptor factory
+     */
+    @Value
+    protected static class IndexedFactory<F> {
+        /**
+         * Position of the factory in the locator's ordering, used to keep interceptors in rank order
+         */
+        int ordinal;
+
+        ServiceHandle<? extends F> handle;
+    }
+
+    /**
+     * Interceptor factory matched to the annotation instance on the executable or its class
+     */
+    @Value
+    protected static class FactoryMatch<F> {
+        IndexedFactory<F> factory;
+
+        Annotation annotation;
+    }
+
+    /**
+     * Snapshot of the registered factories, and the interceptors that have been built from them
+     */
+    @Value
+    protected static class IndexState<T, I, F> {
+        List<ActiveDescriptor<?>> descriptors;
+
+        Map<Class<? extends Annotation>, List<IndexedFactory<F>>> factories;
+
+        Cache<T, List<I>> interceptors;
+    }
+
+    /**
+     * Index of interceptor factories of a single type by the annotation they are bound to
+     *
+     * @param <T>
+     *     Type of executable being intercepted
+     * @param <I>
+     *     Type of interceptor
+     * @param <F>
+     *     Type of interceptor factory
+     */
+    protected class InterceptorIndex<T extends Executable, I extends Interceptor, F> {
+        private final IterableProvider<? extends F> factoryProviders;
+
+        private final Class<F> interceptorType;
+
+        private final InterceptorFactory<F, T, Annotation, I> interceptorProvider;
+
+        private volatile IndexState<T, I, F> state;
+
+        private volatile boolean stale = true;
+
+        protected InterceptorIndex(
+            IterableProvider<? extends F> factoryProviders,
+            Class<F> interceptorType,
+            InterceptorFactory<F, T, Annotation, I> interceptorProvider
+        ) {
+            this.factoryProviders = factoryProviders;
+            this.interceptorType = interceptorType;
+            this.interceptorProvider = interceptorProvider;
+        }
+
+        /**
+         * Marks the index as needing to be checked against the locator before it is next used
+         */
+        public void invalidate() {
+            stale = true;
+        }
+
+        /**
+         * Checks if any of the given annotation types has a registered interceptor factory
+         *
+         * @param annotationTypes
+         *     Annotation types to check
+         *
+         * @return {@code true} if at least one of the annotation types can be intercepted
+         */
+        public boolean isIndexed(Set<Class<? extends Annotation>> annotationTypes) {
+            Map<Class<? extends Annotation>, List<IndexedFactory<F>>> factories = getState().getFactories();
+            for (Class<? extends Annotation> annotationType : annotationTypes) {
+                if (factories.containsKey(annotationType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the interceptors for an executable, building them if they have not been built since the factories last changed
+         *
+         * @param interceptee
+         *     Method or constructor being intercepted
+         *
+         * @return Interceptors for {@code interceptee}, in rank order
+         */
+        public List<I> getInterceptors(T interceptee) {
+            IndexState<T, I, F> current = getState();
+            try {
+                // Loading through the cache builds each executable's interceptors only once, even when threads race for it
+                return Lists.newArrayList(
+                    current.getInterceptors().get(interceptee, () -> buildInterceptors(current.getFactories(), interceptee))
+                );
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to build interceptors for " + interceptee, e.getCause());
+            }
+        }
+
+        protected IndexState<T, I, F> getState() {
+            IndexState<T, I, F> current = state;
+            if (current != null && !stale) {
+                return current;
+            }
+            synchronized (this) {
+                if (state == null || stale) {
+                    // Clear first so that changes made while we rebuild cause another check
+                    stale = false;
+                    List<ServiceHandle<? extends F>> handles = Lists.newArrayList(factoryProviders.handleIterator());
+                    List<ActiveDescriptor<?>> descriptors = Lists.transform(handles, ServiceHandle::getActiveDescriptor);
+                    // Most configuration changes don't touch interceptor factories, so keep the index unless they did
+                    if (state == null || !isSameDescriptors(state.getDescriptors(), descriptors)) {
+                        state = new IndexState<>(
+                            ImmutableList.copyOf(descriptors),
+                            buildIndex(handles),
+                            CacheBuilder.newBuilder().weakKeys().build()
+                        );
                     }
-                    return;
+                }
+                return state;
+            }
+        }
+
+        protected boolean isSameDescriptors(List<ActiveDescriptor<?>> previous, List<ActiveDescriptor<?>> current) {
+            if (previous.size() != current.size()) {
+                return false;
+            }
+            for (int i = 0; i < previous.size(); i++) {
+                if (previous.get(i) != current.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        protected Map<Class<? extends Annotation>, List<IndexedFactory<F>>> buildIndex(List<ServiceHandle<? extends F>> handles) {
+            Map<Class<? extends Annotation>, List<IndexedFactory<F>>> index = Maps.newHashMap();
+            for (int i = 0; i < handles.size(); i++) {
+                Class<? extends Annotation> annotationType = getAnnotationType(handles.get(i), interceptorType);
+                if (annotationType != null) {
+                    index.computeIfAbsent(annotationType, key -> Lists.newArrayList()).add(new IndexedFactory<>(i, handles.get(i)));
+                }
+            }
+            return index;
+        }
+
+        protected List<I> buildInterceptors(Map<Class<? extends Annotation>, List<IndexedFactory<F>>> index, T interceptee) {
+            if (index.isEmpty()) {
+                return ImmutableList.of();
+            }
+            List<FactoryMatch<F>> matches = Lists.newArrayList();
+            for (Annotation ann : interceptee.getAnnotations()) {
+                addMatches(index, ann, matches);
+            }
+            for (Annotation ann : interceptee.getDeclaringClass().getAnnotations()) {
+                // Annotations on the executable take precedence over those on the class
+                if (!interceptee.isAnnotationPresent(ann.annotationType())) {
+                    addMatches(index, ann, matches);
+                }
+            }
+            if (matches.isEmpty()) {
+                return ImmutableList.of();
+            }
+            // Run the factories in the same order as the locator returned them
+            matches.sort(Comparator.comparingInt(match -> match.getFactory().getOrdinal()));
+            ImmutableList.Builder<I> interceptors = ImmutableList.builder();
+            for (FactoryMatch<F> match : matches) {
+                // Create the factory and produce an interceptor
+                F factory = match.getFactory().getHandle().getService();
+                I interceptor = interceptorProvider.apply(factory, interceptee, match.getAnnotation());
+                if (interceptor != null) {
+                    interceptors.add(interceptor);
+                }
+            }
+            return interceptors.build();
+        }
+
+        private void addMatches(
+            Map<Class<? extends Annotation>, List<IndexedFactory<F>>> index, Annotation ann, List<FactoryMatch<F>> matches
+        ) {
+            List<IndexedFactory<F>> factories = index.get(ann.annotationType());
+            if (factories != null) {
+                for (IndexedFactory<F> factory : factories) {
+                    matches.add(new FactoryMatch<>(factory, ann));
                 }
             }
-        });
-        return interceptors;
+        }
     }
 }
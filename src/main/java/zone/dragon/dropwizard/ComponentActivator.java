@@ -26,9 +26,12 @@
 package zone.dragon.dropwizard;
 
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import jakarta.inject.Named;
+import jakarta.ws.rs.core.Configuration;
 
+import org.glassfish.hk2.api.ActiveDescriptor;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.jersey.server.monitoring.ApplicationEvent;
 import org.glassfish.jersey.server.monitoring.ApplicationEvent.Type;
@@ -36,21 +39,63 @@ import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
 import org.glassfish.jersey.server.monitoring.RequestEvent;
 import org.glassfish.jersey.server.monitoring.RequestEventListener;
 
+import com.google.common.base.Suppliers;
+
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import zone.dragon.dropwizard.StartupProfiler.Category;
 
 /**
  * Helper class for initializing custom Jersey components; Implement the {@link #activateComponents()} to call
  * {@link #activate(Class, ComponentConsumer)} and then retrieve/initialize custom components.
+ * <p>
+ * Setting the {@link #LAZY_ACTIVATION} property to {@code true} on the Jersey environment lets activators that use
+ * {@link #activate(Class, ComponentConsumer, LazyComponentConsumer)} register a lightweight stand-in for each component, so the component
+ * and its dependencies are only created when the stand-in is first used.
  *
  * @author Bryan Harclerode
  */
 @Slf4j
 @RequiredArgsConstructor
 public abstract class ComponentActivator implements ApplicationEventListener {
+    /**
+     * Jersey property that enables lazy activation of components
+     */
+    public static final String LAZY_ACTIVATION = "zone.dragon.dropwizard.lazyActivation";
+
     protected interface ComponentConsumer<T> extends BiConsumer<String, T> {}
 
+    protected interface DescribedComponentConsumer<T> {
+        /**
+         * Activates a component
+         *
+         * @param name
+         *     Name of the component, or {@code null} if it does not have one
+         * @param descriptor
+         *     Descriptor the component was created from
+         * @param component
+         *     The component
+         */
+        void accept(String name, ActiveDescriptor<?> descriptor, T component);
+    }
+
+    protected interface LazyComponentConsumer<T> {
+        /**
+         * Registers a stand-in for a component that has not been created yet
+         *
+         * @param name
+         *     Name of the component, or {@code null} if it does not have one
+         * @param implementation
+         *     Implementation class of the component
+         * @param component
+         *     Creates the component on first use, and returns the same instance afterwards
+         *
+         * @return {@code true} if the component was registered, or {@code false} if it must be created and activated eagerly instead
+         */
+        boolean accept(String name, Class<?> implementation, Supplier<T> component);
+    }
+
     /**
      * Tries to reflect the name of a class, as defined by the {@link Named @Named} annotation
      *
@@ -70,6 +115,10 @@ public abstract class ComponentActivator implements ApplicationEventListener {
     @NonNull
     private final ServiceLocator locator;
 
+    private StartupProfiler profiler;
+
+    private boolean lazy;
+
     /**
      * Finds all Jersey components that provide a specific contract, and invokes a callback with each discovered component to activate it.
      *
@@ -81,13 +130,70 @@ public abstract class ComponentActivator implements ApplicationEventListener {
      *     Type of the component to find and activate
      */
     protected <T> void activate(@NonNull Class<T> contract, @NonNull ComponentConsumer<T> consumer) {
+        activate(contract, (name, descriptor, component) -> consumer.accept(name, component));
+    }
+
+    /**
+     * Finds all Jersey components that provide a specific contract, and invokes a callback with each discovered component and the
+     * descriptor it was created from to activate it.
+     *
+     * @param contract
+     *     The contract that components must implement
+     * @param consumer
+     *     Callback to provide for each discovered component
+     * @param <T>
+     *     Type of the component to find and activate
+     */
+    protected <T> void activate(@NonNull Class<T> contract, @NonNull DescribedComponentConsumer<T> consumer) {
         locator.getAllServiceHandles(contract).forEach(handle -> {
+            long start = System.nanoTime();
             String name = handle.getActiveDescriptor().getName();
             T service = handle.getService();
             if (name == null) {
                 name = getName(service.getClass());
             }
-            consumer.accept(name, service);
+            consumer.accept(name, handle.getActiveDescriptor(), service);
+            if (profiler != null) {
+                profiler.recordSince(Category.ACTIVATION, getClass().getSimpleName() + ": " + service.getClass().getName(), start);
+            }
+        });
+    }
+
+    /**
+     * Finds all Jersey components that provide a specific contract, and activates each of them; If {@link #LAZY_ACTIVATION lazy activation}
+     * is enabled, the components are passed to {@code lazyConsumer} without being created first, and only those it declines are created and
+     * passed to {@code consumer}.
+     *
+     * @param contract
+     *     The contract that components must implement
+     * @param consumer
+     *     Callback to provide for each component that is activated eagerly
+     * @param lazyConsumer
+     *     Callback to provide for each component when lazy activation is enabled
+     * @param <T>
+     *     Type of the component to find and activate
+     */
+    protected <T> void activate(
+        @NonNull Class<T> contract, @NonNull ComponentConsumer<T> consumer, @NonNull LazyComponentConsumer<T> lazyConsumer
+    ) {
+        if (!lazy) {
+            activate(contract, consumer);
+            return;
+        }
+        locator.getAllServiceHandles(contract).forEach(handle -> {
+            long start = System.nanoTime();
+            Class<?> implementation = handle.getActiveDescriptor().getImplementationClass();
+            String name = handle.getActiveDescriptor().getName();
+            if (name == null) {
+                name = getName(implementation);
+            }
+            Supplier<T> component = Suppliers.memoize(handle::getService);
+            if (!lazyConsumer.accept(name, implementation, component)) {
+                consumer.accept(name == null ? getName(component.get().getClass()) : name, component.get());
+            }
+            if (profiler != null) {
+                profiler.recordSince(Category.ACTIVATION, getClass().getSimpleName() + ": " + implementation.getName(), start);
+            }
         });
     }
 
@@ -101,6 +207,9 @@ public abstract class ComponentActivator implements ApplicationEventListener {
     public void onEvent(ApplicationEvent applicationEvent) {
         if (applicationEvent.getType() == Type.INITIALIZATION_START) {
             // Request all implementations of the contract from HK2 and activate them
+            profiler = locator.getService(StartupProfiler.class);
+            Configuration configuration = locator.getService(Configuration.class);
+            lazy = configuration != null && Boolean.parseBoolean(String.valueOf(configuration.getProperty(LAZY_ACTIVATION)));
             activateComponents();
         }
     }
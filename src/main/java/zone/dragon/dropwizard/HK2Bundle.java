@@ -27,16 +27,23 @@ package zone.dragon.dropwizard;
 
 import java.lang.annotation.Annotation;
 import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 import jakarta.ws.rs.core.Feature;
 import jakarta.ws.rs.core.FeatureContext;
 
 import org.eclipse.jetty.jmx.MBeanContainer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.util.component.LifeCycle;
+import org.glassfish.hk2.api.ActiveDescriptor;
 import org.glassfish.hk2.api.DynamicConfiguration;
+import org.glassfish.hk2.api.DynamicConfigurationService;
 import org.glassfish.hk2.api.Factory;
+import org.glassfish.hk2.api.FactoryDescriptors;
 import org.glassfish.hk2.api.Immediate;
 import org.glassfish.hk2.api.ImmediateController;
 import org.glassfish.hk2.api.ImmediateController.ImmediateServiceState;
@@ -44,37 +51,51 @@ import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.api.ServiceLocatorFactory;
 import org.glassfish.hk2.extras.ExtrasUtilities;
 import org.glassfish.hk2.internal.InheritableThreadContext;
+import org.glassfish.hk2.utilities.BuilderHelper;
+import org.glassfish.hk2.utilities.DescriptorImpl;
+import org.glassfish.hk2.utilities.FactoryDescriptorsImpl;
 import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
 import org.glassfish.hk2.utilities.binding.BindingBuilder;
 import org.glassfish.hk2.utilities.binding.BindingBuilderFactory;
 import org.glassfish.hk2.utilities.binding.ScopedBindingBuilder;
 import org.glassfish.hk2.utilities.binding.ServiceBindingBuilder;
 import org.glassfish.jersey.process.internal.RequestScoped;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.Beta;
 
 import io.dropwizard.core.Configuration;
 import io.dropwizard.core.ConfiguredBundle;
 import io.dropwizard.core.setup.Bootstrap;
 import io.dropwizard.core.setup.Environment;
+import io.dropwizard.metrics.servlets.HealthCheckServlet;
 import lombok.Getter;
 import lombok.NonNull;
+import zone.dragon.dropwizard.StartupProfiler.Category;
 import zone.dragon.dropwizard.health.HealthCheckActivator;
+import zone.dragon.dropwizard.health.HealthCheckExecutor;
 import zone.dragon.dropwizard.jmx.MBeanActivator;
 import zone.dragon.dropwizard.jmx.ManagedMBeanContainer;
 import zone.dragon.dropwizard.lifecycle.LifeCycleActivator;
+import zone.dragon.dropwizard.metrics.DimensionalMetricRegistry;
 import zone.dragon.dropwizard.metrics.HK2MetricBinder;
 import zone.dragon.dropwizard.metrics.MetricActivator;
 import zone.dragon.dropwizard.metrics.factories.CounterFactory;
 import zone.dragon.dropwizard.metrics.factories.HistogramFactory;
 import zone.dragon.dropwizard.metrics.factories.MeterFactory;
 import zone.dragon.dropwizard.metrics.factories.TimerFactory;
+import zone.dragon.dropwizard.metrics.naming.filters.RequestMetricContextListener;
+import zone.dragon.dropwizard.task.StartupProfileTask;
 import zone.dragon.dropwizard.task.TaskActivator;
 
 import static org.glassfish.hk2.utilities.ServiceLocatorUtilities.addClasses;
 
 /**
  * Provides integration between DropWizard and HK2, allowing developers to leverage the framework built into Jersey.
+ * <p>
+ * Bindings made through the bundle are collected into a single pending configuration, which is committed to the locator when the bundle
+ * runs and again when Jetty starts; Use {@link #flush()} to commit them earlier.
  *
  * @param <T>
  *     Application configuration type
@@ -105,10 +126,13 @@ public class HK2Bundle<T extends Configuration> implements ConfiguredBundle<T> {
      *
      * @param locator
      *     {@code ServiceLocator} into which local services should be installed
+     * @param profiler
+     *     Profiler that records how long binding takes
      *
      * @return Controller to activate {@link Immediate @Immediate} services
      */
-    private static ImmediateController bindLocalServices(ServiceLocator locator) {
+    private static ImmediateController bindLocalServices(ServiceLocator locator, StartupProfiler profiler) {
+        long start = System.nanoTime();
         // These have to be local because they rely on the InstantiationService, which can only get the Injectee for local injections
         addClasses(
             locator,
@@ -124,10 +148,12 @@ public class HK2Bundle<T extends Configuration> implements ConfiguredBundle<T> {
         }
         ExtrasUtilities.enableDefaultInterceptorServiceImplementation(locator);
         ExtrasUtilities.enableTopicDistribution(locator);
-        if (locator.getServiceHandle(ImmediateController.class) == null) {
-            return ServiceLocatorUtilities.enableImmediateScopeSuspended(locator);
+        ImmediateController controller = locator.getService(ImmediateController.class);
+        if (controller == null) {
+            controller = ServiceLocatorUtilities.enableImmediateScopeSuspended(locator);
         }
-        return locator.getService(ImmediateController.class);
+        profiler.recordSince(Category.BINDING, "local services (" + locator.getName() + ")", start);
+        return controller;
     }
 
     /**
@@ -148,9 +174,17 @@ public class HK2Bundle<T extends Configuration> implements ConfiguredBundle<T> {
             if (bundleLocator == null) {
                 throw new IllegalStateException("Service bridge missing from application context configuration");
             }
-            ExtrasUtilities.bridgeServiceLocator(bundleLocator, serviceLocator);
-            ExtrasUtilities.bridgeServiceLocator(serviceLocator, bundleLocator);
-            bindLocalServices(serviceLocator).setImmediateState(ImmediateServiceState.RUNNING);
+            StartupProfiler profiler = bundleLocator.getService(StartupProfiler.class);
+            if (profiler.isEnabled()) {
+                DynamicConfiguration config = ServiceLocatorUtilities.createDynamicConfiguration(serviceLocator);
+                profiler.installCreationListener(serviceLocator, config);
+                config.commit();
+            }
+            long start = System.nanoTime();
+            MetricRegistry metrics = bundleLocator.getService(MetricRegistry.class);
+            ServiceLocatorBridge.bridge(bundleLocator, serviceLocator, metrics == null ? new MetricRegistry() : metrics);
+            profiler.recordSince(Category.BINDING, "locator bridge", start);
+            bindLocalServices(serviceLocator, profiler).setImmediateState(ImmediateServiceState.RUNNING);
             ServiceLocatorUtilities.addOneConstant(serviceLocator, bundleLocator, SERVICE_LOCATOR, ServiceLocator.class);
             return true;
         }
@@ -159,10 +193,18 @@ public class HK2Bundle<T extends Configuration> implements ConfiguredBundle<T> {
     @Getter
     private final ServiceLocator locator = ServiceLocatorFactory.getInstance().create(null);
 
-    private final ImmediateController immediateController = bindLocalServices(getLocator());
+    private final StartupProfiler startupProfiler = new StartupProfiler();
+
+    private final ImmediateController immediateController = bindLocalServices(getLocator(), startupProfiler);
 
     private BindingBuilder<?> activeBuilder = null;
 
+    private DynamicConfiguration pendingConfiguration = null;
+
+    private ParallelImmediateStarter immediateStarter = null;
+
+    private boolean parallelHealthChecks = false;
+
     private final MBeanContainer mBeanContainer = new MBeanContainer(ManagementFactory.getPlatformMBeanServer());
 
     public HK2Bundle() {
@@ -170,8 +212,19 @@ public class HK2Bundle<T extends Configuration> implements ConfiguredBundle<T> {
 
     private Bootstrap<T> bootstrap = null;
 
+    @SuppressWarnings("unchecked")
     public void autoBind(@NonNull Factory<?>... factories) {
-        ServiceLocatorUtilities.addFactoryConstants(getLocator(), factories);
+        finishBinding();
+        // Analyze the factories like ServiceLocatorUtilities.addFactoryConstants does, in a configuration that is never committed
+        DynamicConfiguration analysis = getLocator().getService(DynamicConfigurationService.class).createDynamicConfiguration();
+        DynamicConfiguration config = getPendingConfiguration();
+        for (Factory<?> factory : factories) {
+            FactoryDescriptors analyzed = analysis.addActiveFactoryDescriptor((Class<? extends Factory<Object>>) factory.getClass());
+            config.bind(new FactoryDescriptorsImpl(
+                BuilderHelper.createConstantDescriptor(factory),
+                new DescriptorImpl(analyzed.getFactoryAsAFactory())
+            ));
+        }
     }
 
     @Beta
@@ -218,25 +271,104 @@ public class HK2Bundle<T extends Configuration> implements ConfiguredBundle<T> {
     }
 
     /**
-     * Completes the {@link #activeBuilder} and adds it to the {@link #getLocator() service locator}
+     * Commits all pending bindings to the {@link #getLocator() service locator} in a single transaction
+     */
+    public void flush() {
+        finishBinding();
+        if (pendingConfiguration != null) {
+            DynamicConfiguration config = pendingConfiguration;
+            pendingConfiguration = null;
+            long start = System.nanoTime();
+            config.commit();
+            startupProfiler.recordSince(Category.BINDING, "commit", start);
+        }
+    }
+
+    /**
+     * Creates this bundle's {@link Immediate @Immediate} services in parallel when Jetty starts, instead of one after another; Services are
+     * created after the immediate services they inject, and Jetty does not finish starting until all of them have been created.
+     *
+     * @param parallelism
+     *     Maximum number of immediate services to create at once
+     * @param timeout
+     *     Maximum time to wait for the immediate services to be created before failing startup
+     */
+    public void enableParallelImmediateStart(int parallelism, @NonNull Duration timeout) {
+        immediateStarter = new ParallelImmediateStarter(getLocator(), parallelism, timeout);
+    }
+
+    /**
+     * Runs the health checks served by the admin servlet in parallel on the {@link HealthCheckExecutor}, unless the application has already
+     * set {@link HealthCheckServlet#HEALTH_CHECK_EXECUTOR}; This applies to every check in the registry, not only injectable ones, so only
+     * enable it if all of the application's checks can safely run at the same time.
+     */
+    public void enableParallelHealthChecks() {
+        parallelHealthChecks = true;
+    }
+
+    /**
+     * Creates the metrics used by metric annotations and injected into services through a {@link DimensionalMetricRegistry}, so that
+     * reporters can look them up by name and tags instead of parsing their formatted names
+     */
+    public void enableDimensionalMetrics() {
+        bindAsContract(DimensionalMetricRegistry.class).in(Singleton.class);
+    }
+
+    /**
+     * Enables the {@link StartupProfiler}, which reports where startup time goes through the {@link StartupProfileTask} admin task and as
+     * metrics; Call this before the bundle runs. Nothing is recorded before this is called, so the local services the bundle binds when it
+     * is constructed are not included.
+     *
+     * @return The enabled profiler
+     */
+    public StartupProfiler enableStartupProfiler() {
+        if (!startupProfiler.isEnabled()) {
+            startupProfiler.enable();
+            finishBinding();
+            startupProfiler.installCreationListener(getLocator(), getPendingConfiguration());
+        }
+        return startupProfiler;
+    }
+
+    private DynamicConfiguration getPendingConfiguration() {
+        if (pendingConfiguration == null) {
+            pendingConfiguration = ServiceLocatorUtilities.createDynamicConfiguration(getLocator());
+        }
+        return pendingConfiguration;
+    }
+
+    /**
+     * Completes the {@link #activeBuilder} and adds it to the pending configuration
      */
     private void finishBinding() {
         if (activeBuilder != null) {
-            DynamicConfiguration config = ServiceLocatorUtilities.createDynamicConfiguration(getLocator());
-            BindingBuilderFactory.addBinding(activeBuilder, config);
-            config.commit();
+            BindingBuilderFactory.addBinding(activeBuilder, getPendingConfiguration());
             activeBuilder = null;
         }
     }
 
+    @SuppressWarnings("unchecked")
     public void autoBind(@NonNull Class<?>... serviceClasses) {
-        addClasses(getLocator(), true, serviceClasses);
+        finishBinding();
+        DynamicConfiguration config = getPendingConfiguration();
+        // Mirrors ServiceLocatorUtilities.addClasses(locator, true, ...), which fails if a class is already bound
+        for (Class<?> serviceClass : serviceClasses) {
+            if (Factory.class.isAssignableFrom(serviceClass)) {
+                FactoryDescriptors descriptors = config.addActiveFactoryDescriptor((Class<? extends Factory<Object>>) serviceClass);
+                config.addIdempotentFilter(
+                    BuilderHelper.createDescriptorFilter(descriptors.getFactoryAsAService(), false),
+                    BuilderHelper.createDescriptorFilter(descriptors.getFactoryAsAFactory(), false)
+                );
+            } else {
+                ActiveDescriptor<?> descriptor = config.addActiveDescriptor(serviceClass);
+                config.addIdempotentFilter(BuilderHelper.createDescriptorFilter(descriptor, false));
+            }
+        }
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public void run(@NonNull T configuration, @NonNull Environment environment) {
-        finishBinding();
         // Bridge into Jersey's locator
         environment.jersey().register((Feature) context -> {
             context.property(SERVICE_LOCATOR, getLocator());
@@ -249,25 +381,57 @@ public class HK2Bundle<T extends Configuration> implements ConfiguredBundle<T> {
             @Override
             public void lifeCycleStarting(LifeCycle event) {
                 if (event instanceof Server) {
-                    finishBinding();
-                    ServiceLocatorUtilities.addOneConstant(getLocator(), event, null, Server.class);
+                    getPendingConfiguration().addActiveDescriptor(BuilderHelper.createConstantDescriptor(event, null, Server.class));
+                    flush();
+                    if (immediateStarter != null) {
+                        immediateStarter.start();
+                    }
                     immediateController.setImmediateState(ImmediateServiceState.RUNNING);
                     ((Server) event).addBean(mBeanContainer);
                     ((Server) event).addBean(new ManagedMBeanContainer(mBeanContainer));
                 }
             }
+
+            @Override
+            public void lifeCycleStarted(LifeCycle event) {
+                if (event instanceof Server) {
+                    startupProfiler.finish();
+                }
+            }
         });
-        ServiceLocatorUtilities.bind(getLocator(), new EnvironmentBinder<>(bootstrap, configuration, environment));
-        ServiceLocatorUtilities.bind(getLocator(), new HK2MetricBinder());
-        ServiceLocatorUtilities.bind(getLocator(), new BundleBinder(bootstrap));
-        ServiceLocatorUtilities.addOneConstant(getLocator(), mBeanContainer, null, MBeanContainer.class);
+        finishBinding();
+        DynamicConfiguration config = getPendingConfiguration();
+        for (AbstractBinder binder : List.of(
+            new EnvironmentBinder<>(bootstrap, configuration, environment),
+            new HK2MetricBinder(),
+            new BundleBinder(bootstrap)
+        )) {
+            long start = System.nanoTime();
+            binder.bind(config);
+            startupProfiler.recordSince(Category.BINDING, binder.getClass().getSimpleName(), start);
+        }
+        config.addActiveDescriptor(BuilderHelper.createConstantDescriptor(mBeanContainer, null, MBeanContainer.class));
+        config.addActiveDescriptor(BuilderHelper.createConstantDescriptor(startupProfiler));
+        if (startupProfiler.isEnabled()) {
+            startupProfiler.publishTo(environment.metrics());
+            environment.admin().addTask(new StartupProfileTask(startupProfiler, environment.getObjectMapper()));
+        }
         // Register Jersey components to activate injectable dropwizard components when Jersey starts up
         environment.jersey().register(HK2BridgeFeature.class);
         environment.jersey().register(HealthCheckActivator.class);
         environment.jersey().register(MetricActivator.class);
         environment.jersey().register(LifeCycleActivator.class);
         environment.jersey().register(TaskActivator.class);
+        // Publish the resource method being invoked for request-scoped metric name filters
+        environment.jersey().register(RequestMetricContextListener.class);
         autoBind(MBeanActivator.class);
+        autoBind(HealthCheckExecutor.class);
+        flush();
+        // Run the admin servlet's health checks in parallel if enabled, unless the application already chose an executor
+        if (parallelHealthChecks && environment.getAdminContext().getAttribute(HealthCheckServlet.HEALTH_CHECK_EXECUTOR) == null) {
+            ExecutorService healthCheckExecutor = getLocator().getService(HealthCheckExecutor.class).getRegistryExecutor();
+            environment.getAdminContext().setAttribute(HealthCheckServlet.HEALTH_CHECK_EXECUTOR, healthCheckExecutor);
+        }
     }
 
     @SuppressWarnings("unchecked")
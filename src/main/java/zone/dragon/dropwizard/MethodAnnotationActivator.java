@@ -35,8 +35,6 @@ import org.glassfish.hk2.api.Filter;
 import org.glassfish.hk2.api.InstanceLifecycleEvent;
 import org.glassfish.hk2.api.InstanceLifecycleEventType;
 import org.glassfish.hk2.api.InstanceLifecycleListener;
-import org.glassfish.hk2.utilities.reflection.ClassReflectionHelper;
-import org.glassfish.hk2.utilities.reflection.internal.ClassReflectionHelperImpl;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -44,7 +42,8 @@ import lombok.RequiredArgsConstructor;
 /**
  * {@link InstanceLifecycleListener} that listens for {@link Singleton singleton} services with methods that are annotated with {@link T};
  * The {@link #activate(ActiveDescriptor, Object, Method, Annotation) activate} method will be invoked once for each method on the service
- * that has the annotation after the service has been created.
+ * that has the annotation after the service has been created. Annotated methods are found through a {@link MethodAnnotationIndex} shared
+ * by all activators, so each implementation class is only scanned once.
  *
  * @param <T>
  *     Annotation type that is used to indicate for which methods {@link #activate(ActiveDescriptor, Object, Method, Annotation) activate}
@@ -53,8 +52,6 @@ import lombok.RequiredArgsConstructor;
 @Singleton
 @RequiredArgsConstructor
 public abstract class MethodAnnotationActivator<T extends Annotation> implements InstanceLifecycleListener {
-    private static final ClassReflectionHelper HELPER = new ClassReflectionHelperImpl();
-
     private static final Filter SINGLETON_FILTER = descriptor -> Singleton.class.getName().equals(descriptor.getScope());
 
     /**
@@ -91,14 +88,10 @@ public abstract class MethodAnnotationActivator<T extends Annotation> implements
             if (object == null) {
                 return;
             }
-            HELPER.getAllMethods(descriptor.getImplementationClass()).forEach(wrapper -> {
-                Method method = wrapper.getMethod();
-                T annotation = method.getAnnotation(annotationType);
-                if (annotation != null) {
-                    method.setAccessible(true);
-                    activate(descriptor, object, method, annotation);
-                }
-            });
+            for (Method method : MethodAnnotationIndex.of(descriptor.getImplementationClass()).getMethods(annotationType)) {
+                method.setAccessible(true);
+                activate(descriptor, object, method, method.getAnnotation(annotationType));
+            }
         }
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.glassfish.hk2.utilities.reflection.ClassReflectionHelper;
+import org.glassfish.hk2.utilities.reflection.MethodWrapper;
+import org.glassfish.hk2.utilities.reflection.internal.ClassReflectionHelperImpl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableListMultimap;
+
+import lombok.NonNull;
+
+/**
+ * Index of the methods on a class by the annotations present on each method. The index for each class is built with a single scan of its
+ * methods the first time it is requested and then shared, so that any number of {@link MethodAnnotationActivator activators} can find
+ * their methods without rescanning the class.
+ */
+public final class MethodAnnotationIndex {
+    private static final ClassReflectionHelper HELPER = new ClassReflectionHelperImpl();
+
+    private static final Cache<Class<?>, MethodAnnotationIndex> INDEXES = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Returns the index for a class, building it if it has not already been built
+     *
+     * @param type
+     *     Class whose methods should be indexed
+     *
+     * @return Index of the methods on {@code type}
+     */
+    public static MethodAnnotationIndex of(@NonNull Class<?> type) {
+        return INDEXES.asMap().computeIfAbsent(type, MethodAnnotationIndex::new);
+    }
+
+    private final ImmutableListMultimap<Class<? extends Annotation>, Method> methods;
+
+    private MethodAnnotationIndex(Class<?> type) {
+        ImmutableListMultimap.Builder<Class<? extends Annotation>, Method> builder = ImmutableListMultimap.builder();
+        for (MethodWrapper wrapper : HELPER.getAllMethods(type)) {
+            Method method = wrapper.getMethod();
+            for (Annotation annotation : method.getAnnotations()) {
+                builder.put(annotation.annotationType(), method);
+            }
+        }
+        methods = builder.build();
+    }
+
+    /**
+     * Returns all methods on the class, including inherited ones, that are annotated with {@code annotationType}
+     *
+     * @param annotationType
+     *     Annotation to look for
+     *
+     * @return Annotated methods, or an empty list if there are none
+     */
+    public List<Method> getMethods(@NonNull Class<? extends Annotation> annotationType) {
+        return methods.get(annotationType);
+    }
+}
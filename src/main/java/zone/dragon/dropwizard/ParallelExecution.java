@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import jakarta.inject.Provider;
+
+import org.glassfish.hk2.api.IterableProvider;
+import org.glassfish.hk2.utilities.reflection.ReflectionHelper;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Helpers shared by the components that do their work in parallel; They run on bounded pools of daemon threads, and components that
+ * depend on each other are ordered so that each one only runs once the components it depends on have finished.
+ *
+ * @author Bryan Harclerode
+ */
+public final class ParallelExecution {
+    private ParallelExecution() {}
+
+    /**
+     * Creates a pool of daemon threads that are only kept while there is work to do
+     *
+     * @param nameFormat
+     *     Format for the names of the threads, such as {@code "worker-%d"}
+     * @param threads
+     *     Maximum number of threads; Work beyond this waits in the queue
+     *
+     * @return New executor, which the caller must shut down
+     */
+    public static ExecutorService newExecutor(String nameFormat, int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads,
+            threads,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates an executor that runs each task on its own virtual thread when the JVM supports them, or a {@link #newExecutor(String, int)
+     * pool of daemon threads} otherwise; Virtual threads are looked up reflectively, so this also runs on JVMs that predate them.
+     *
+     * @param nameFormat
+     *     Format for the names of the threads if virtual threads are not available, such as {@code "worker-%d"}
+     * @param threads
+     *     Maximum number of threads if virtual threads are not available
+     *
+     * @return New executor, which the caller must shut down
+     */
+    public static ExecutorService newVirtualThreadExecutor(String nameFormat, int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Either the method does not exist, or virtual threads are a preview feature that has not been enabled
+            return newExecutor(nameFormat, threads);
+        }
+    }
+
+    /**
+     * Finds the type a component depends on when HK2 injects {@code type} into it; Providers are usually resolved while the component runs,
+     * so a component still depends on the type it is provided.
+     *
+     * @param type
+     *     Required type of an injection point
+     *
+     * @return Class of the component being depended on
+     */
+    public static Class<?> getDependencyType(Type type) {
+        if (type instanceof ParameterizedType) {
+            Class<?> rawType = ReflectionHelper.getRawClass(type);
+            if (rawType == Provider.class || rawType == IterableProvider.class) {
+                return ReflectionHelper.getRawClass(((ParameterizedType) type).getActualTypeArguments()[0]);
+            }
+        }
+        return ReflectionHelper.getRawClass(type);
+    }
+
+    /**
+     * Orders nodes so that every node comes after its dependencies; Nodes that are part of, or depend on, a circular dependency are left
+     * out, so the result is shorter than {@code nodes} if there is a cycle.
+     *
+     * @param nodes
+     *     Nodes to order, which are compared by identity
+     * @param dependencies
+     *     Dependencies of each node, all of which must be in {@code nodes}
+     * @param <T>
+     *     Type of node
+     *
+     * @return Nodes in dependency order
+     */
+    public static <T> List<T> sort(Collection<T> nodes, Map<T, ? extends Collection<T>> dependencies) {
+        Map<T, Integer> remaining = new IdentityHashMap<>();
+        Map<T, List<T>> dependents = new IdentityHashMap<>();
+        Deque<T> ready = new ArrayDeque<>();
+        for (T node : nodes) {
+            Collection<T> nodeDependencies = dependencies.get(node);
+            remaining.put(node, nodeDependencies.size());
+            for (T dependency : nodeDependencies) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(node);
+            }
+            if (nodeDependencies.isEmpty()) {
+                ready.add(node);
+            }
+        }
+        List<T> order = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            T node = ready.poll();
+            order.add(node);
+            for (T dependent : dependents.getOrDefault(node, List.of())) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Runs an action for each node on an executor, starting the action for a node once the actions for all of its dependencies have
+     * completed; Dependencies that are not in {@code order} are not waited for.
+     *
+     * @param order
+     *     Nodes in dependency order, as returned by {@link #sort(Collection, Map)}
+     * @param dependencies
+     *     Dependencies of each node
+     * @param action
+     *     Action to run for each node
+     * @param executor
+     *     Executor to run the actions on
+     * @param <T>
+     *     Type of node
+     *
+     * @return Completion of the action for each node, which can be cancelled to skip the actions that have not started yet
+     */
+    public static <T> Map<T, CompletableFuture<Void>> run(
+        List<T> order, Map<T, ? extends Collection<T>> dependencies, Consumer<? super T> action, Executor executor
+    ) {
+        Map<T, CompletableFuture<Void>> completions = new IdentityHashMap<>();
+        for (T node : order) {
+            Collection<T> nodeDependencies = dependencies.get(node);
+            CompletableFuture<?>[] waitFor = (nodeDependencies == null ? List.<T>of() : nodeDependencies)
+                .stream()
+                .map(completions::get)
+                .filter(future -> future != null)
+                .toArray(CompletableFuture[]::new);
+            completions.put(node, CompletableFuture.allOf(waitFor).thenRunAsync(() -> action.accept(node), executor));
+        }
+        return completions;
+    }
+}
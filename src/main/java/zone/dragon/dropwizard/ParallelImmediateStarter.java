@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.glassfish.hk2.api.ActiveDescriptor;
+import org.glassfish.hk2.api.Immediate;
+import org.glassfish.hk2.api.ImmediateController;
+import org.glassfish.hk2.api.Injectee;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.reflection.ReflectionHelper;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the {@link Immediate @Immediate} services of a locator in parallel on a bounded pool of threads, before the locator's
+ * {@link ImmediateController} is set to running. HK2 would otherwise create them one after another on a single thread.
+ * <p>
+ * A service is only created once the other immediate services it injects have been created, so that threads are not tied up waiting on
+ * each other. Services that fail to create are logged and left to HK2, which retries them once the controller is running and reports the
+ * failure to its {@link org.glassfish.hk2.api.ImmediateErrorHandler ImmediateErrorHandler}s.
+ *
+ * @author Bryan Harclerode
+ */
+@Slf4j
+final class ParallelImmediateStarter {
+    private static boolean provides(ActiveDescriptor<?> descriptor, Class<?> type) {
+        return type.isAssignableFrom(descriptor.getImplementationClass())
+            || descriptor.getContractTypes().stream().anyMatch(contract -> ReflectionHelper.getRawClass(contract) == type);
+    }
+
+    @NonNull
+    private final ServiceLocator locator;
+
+    private final int parallelism;
+
+    @NonNull
+    private final Duration timeout;
+
+    /**
+     * @param locator
+     *     Locator whose immediate services should be created
+     * @param parallelism
+     *     Maximum number of services to create at once
+     * @param timeout
+     *     Maximum time to wait for all services to be created
+     */
+    ParallelImmediateStarter(@NonNull ServiceLocator locator, int parallelism, @NonNull Duration timeout) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.locator = locator;
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Creates all immediate services and waits for them to finish
+     *
+     * @throws IllegalStateException
+     *     if the services are not created within the timeout
+     */
+    void start() {
+        List<ActiveDescriptor<?>> descriptors = new ArrayList<>();
+        locator
+            .getDescriptors(descriptor -> Immediate.class.getName().equals(descriptor.getScope()))
+            .forEach(descriptor -> descriptors.add(locator.reifyDescriptor(descriptor)));
+        if (descriptors.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = ParallelExecution.newExecutor("immediate-%d", Math.min(parallelism, descriptors.size()));
+        Map<ActiveDescriptor<?>, CompletableFuture<Void>> created = Map.of();
+        try {
+            Map<ActiveDescriptor<?>, Set<ActiveDescriptor<?>>> dependencies = findDependencies(descriptors);
+            created = ParallelExecution.run(sortDescriptors(descriptors, dependencies), dependencies, this::create, executor);
+            CompletableFuture.allOf(created.values().toArray(new CompletableFuture[0])).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Skip the services that have not started and interrupt the ones still being created, so none are left running
+            created.values().forEach(future -> future.cancel(true));
+            executor.shutdownNow();
+            throw new IllegalStateException("Immediate services were not created within " + timeout, e);
+        } catch (InterruptedException e) {
+            created.values().forEach(future -> future.cancel(true));
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating immediate services", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to create immediate services", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void create(ActiveDescriptor<?> descriptor) {
+        try {
+            locator.getServiceHandle(descriptor).getService();
+        } catch (RuntimeException e) {
+            log.error("Failed to create immediate service {}", descriptor.getImplementation(), e);
+        }
+    }
+
+    private Map<ActiveDescriptor<?>, Set<ActiveDescriptor<?>>> findDependencies(List<ActiveDescriptor<?>> descriptors) {
+        Map<ActiveDescriptor<?>, Set<ActiveDescriptor<?>>> dependencies = new IdentityHashMap<>();
+        for (ActiveDescriptor<?> descriptor : descriptors) {
+            Set<ActiveDescriptor<?>> found = new LinkedHashSet<>();
+            for (Injectee injectee : descriptor.getInjectees()) {
+                Class<?> type = ParallelExecution.getDependencyType(injectee.getRequiredType());
+                if (type == null || type == Object.class) {
+                    continue;
+                }
+                for (ActiveDescriptor<?> other : descriptors) {
+                    if (other != descriptor && provides(other, type)) {
+                        found.add(other);
+                    }
+                }
+            }
+            dependencies.put(descriptor, found);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Orders descriptors so that every descriptor comes after its dependencies; Descriptors with circular dependencies are placed last in
+     * no particular order, and HK2 resolves or rejects the cycle when they are created.
+     */
+    private List<ActiveDescriptor<?>> sortDescriptors(
+        List<ActiveDescriptor<?>> descriptors, Map<ActiveDescriptor<?>, Set<ActiveDescriptor<?>>> dependencies
+    ) {
+        List<ActiveDescriptor<?>> order = ParallelExecution.sort(descriptors, dependencies);
+        if (order.size() < descriptors.size()) {
+            Set<ActiveDescriptor<?>> sorted = Collections.newSetFromMap(new IdentityHashMap<>());
+            sorted.addAll(order);
+            List<ActiveDescriptor<?>> circular = new ArrayList<>();
+            descriptors.stream().filter(descriptor -> !sorted.contains(descriptor)).forEach(circular::add);
+            log.warn("Circular dependencies between immediate services {}", circular);
+            // Drop the dependencies within the cycle so these are created alongside each other
+            circular.forEach(descriptor -> dependencies.get(descriptor).retainAll(sorted));
+            order.addAll(circular);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.inject.Singleton;
+
+import org.glassfish.hk2.api.DescriptorVisibility;
+import org.glassfish.hk2.api.DynamicConfiguration;
+import org.glassfish.hk2.api.DynamicConfigurationListener;
+import org.glassfish.hk2.api.Injectee;
+import org.glassfish.hk2.api.JustInTimeInjectionResolver;
+import org.glassfish.hk2.api.MultiException;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.extras.ExtrasUtilities;
+import org.glassfish.hk2.utilities.AbstractActiveDescriptor;
+import org.glassfish.hk2.utilities.BuilderHelper;
+import org.glassfish.hk2.utilities.InjecteeImpl;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Bridges two {@link ServiceLocator}s in both directions. Bound services cross the bridge through
+ * {@link ExtrasUtilities#bridgeServiceLocator(ServiceLocator, ServiceLocator)}; in addition, an injection point that one locator cannot
+ * satisfy falls through to the other, so that services it only creates on demand through its own {@link JustInTimeInjectionResolver}s are
+ * visible as well.
+ * <p>
+ * Fall-through resolutions are cached per locator, contract, and qualifier set, including negative ones so that repeated lookups for
+ * optional injection points do not cross the bridge again. The cache is cleared whenever the configuration of either locator changes.
+ *
+ * @author Bryan Harclerode
+ */
+@Slf4j
+final class ServiceLocatorBridge implements DynamicConfigurationListener {
+    /**
+     * Bridges two locators in both directions
+     *
+     * @param first
+     *     Locator to bridge
+     * @param second
+     *     Locator to bridge
+     * @param metrics
+     *     Registry in which to record bridge hits and misses
+     *
+     * @return The installed bridge
+     */
+    static ServiceLocatorBridge bridge(@NonNull ServiceLocator first, @NonNull ServiceLocator second, @NonNull MetricRegistry metrics) {
+        ExtrasUtilities.bridgeServiceLocator(first, second);
+        ExtrasUtilities.bridgeServiceLocator(second, first);
+        ServiceLocatorBridge bridge = new ServiceLocatorBridge(
+            metrics.counter(name(ServiceLocatorBridge.class, "hits")),
+            metrics.counter(name(ServiceLocatorBridge.class, "misses"))
+        );
+        bridge.install(first, second);
+        bridge.install(second, first);
+        return bridge;
+    }
+
+    @Value
+    private static class Key {
+        long locatorId;
+
+        Type requiredType;
+
+        Set<Annotation> qualifiers;
+    }
+
+    /**
+     * Resolves injection points that failed in the local locator against a remote locator
+     */
+    @RequiredArgsConstructor
+    private class Resolver implements JustInTimeInjectionResolver {
+        @NonNull
+        private final ServiceLocator remote;
+
+        @Override
+        public boolean justInTimeResolution(Injectee failedInjectionPoint) {
+            // The remote locator falls back to us when it can't resolve the injectee either; Don't bounce it back
+            if (crossing.get()) {
+                return false;
+            }
+            Key key = new Key(remote.getLocatorId(), failedInjectionPoint.getRequiredType(), failedInjectionPoint.getRequiredQualifiers());
+            Boolean resolved = resolutions.get(key);
+            if (resolved != null) {
+                hits.inc();
+                return resolved;
+            }
+            misses.inc();
+            resolved = resolve(failedInjectionPoint);
+            resolutions.putIfAbsent(key, resolved);
+            return resolved;
+        }
+
+        private boolean resolve(Injectee failedInjectionPoint) {
+            InjecteeImpl injectee = new InjecteeImpl(failedInjectionPoint.getRequiredType());
+            injectee.setRequiredQualifiers(failedInjectionPoint.getRequiredQualifiers());
+            injectee.setOptional(true);
+            crossing.set(true);
+            try {
+                // Anything the remote locator resolves on demand is committed there and mirrored back to us by the descriptor bridge
+                return remote.getInjecteeDescriptor(injectee) != null;
+            } catch (MultiException e) {
+                log.debug("Failed to resolve {} across the locator bridge", injectee, e);
+                return false;
+            } finally {
+                crossing.remove();
+            }
+        }
+    }
+
+    @Getter
+    private final Counter hits;
+
+    @Getter
+    private final Counter misses;
+
+    private final ConcurrentMap<Key, Boolean> resolutions = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Boolean> crossing = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private ServiceLocatorBridge(@NonNull Counter hits, @NonNull Counter misses) {
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    private void install(ServiceLocator local, ServiceLocator remote) {
+        DynamicConfiguration config = ServiceLocatorUtilities.createDynamicConfiguration(local);
+        config.addActiveDescriptor(localDescriptor(new Resolver(remote), JustInTimeInjectionResolver.class));
+        config.addActiveDescriptor(localDescriptor(this, DynamicConfigurationListener.class));
+        config.commit();
+    }
+
+    /**
+     * Creates a descriptor that is not mirrored across the bridge, so each locator only sees its own resolver and listener
+     */
+    private static <T> AbstractActiveDescriptor<T> localDescriptor(T constant, Class<? super T> contract) {
+        AbstractActiveDescriptor<T> descriptor = BuilderHelper.createConstantDescriptor(constant, null, contract);
+        descriptor.setDescriptorVisibility(DescriptorVisibility.LOCAL);
+        descriptor.setScope(Singleton.class.getName());
+        return descriptor;
+    }
+
+    @Override
+    public void configurationChanged() {
+        resolutions.clear();
+    }
+}
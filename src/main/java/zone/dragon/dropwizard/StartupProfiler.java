@@ -0,0 +1,247 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Singleton;
+
+import org.glassfish.hk2.api.ActiveDescriptor;
+import org.glassfish.hk2.api.DescriptorVisibility;
+import org.glassfish.hk2.api.DynamicConfiguration;
+import org.glassfish.hk2.api.Filter;
+import org.glassfish.hk2.api.Immediate;
+import org.glassfish.hk2.api.InstanceLifecycleEvent;
+import org.glassfish.hk2.api.InstanceLifecycleEventType;
+import org.glassfish.hk2.api.InstanceLifecycleListener;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.api.ServiceLocatorState;
+import org.glassfish.hk2.utilities.AbstractActiveDescriptor;
+import org.glassfish.hk2.utilities.BuilderHelper;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+
+import com.codahale.metrics.MetricRegistry;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Timeline of where startup time goes in the {@link HK2Bundle}: binder commits, service creation, {@link ComponentActivator} callbacks,
+ * and {@link Immediate @Immediate} service starts.
+ * <p>
+ * Nothing is recorded until the profiler has been {@link HK2Bundle#enableStartupProfiler() enabled}. The timeline is then published through
+ * the {@link StartupProfileTask} admin task, which lists every step, and as one {@link com.codahale.metrics.Timer Timer} per
+ * {@link Category}.
+ * Service creation is timed until Jetty has started, at which point the listener that times it is removed from every locator. Service
+ * creation times include the time to create the service's dependencies.
+ *
+ * @author Bryan Harclerode
+ */
+public class StartupProfiler {
+    public enum Category {
+        /**
+         * Binding services into a locator and committing them
+         */
+        BINDING,
+        /**
+         * Creating a service, including its dependencies
+         */
+        SERVICE_CREATION,
+        /**
+         * Activating a component discovered by a {@link ComponentActivator}
+         */
+        ACTIVATION,
+        /**
+         * Starting an {@link Immediate @Immediate} service
+         */
+        IMMEDIATE_SERVICE
+    }
+
+    /**
+     * A single timed step of startup
+     */
+    @Value
+    public static class Entry {
+        @NonNull
+        Category category;
+
+        @NonNull
+        String name;
+
+        long durationNanos;
+    }
+
+    /**
+     * Times the creation of every service in the locator into which it is installed
+     */
+    private class CreationListener implements InstanceLifecycleListener {
+        private final ThreadLocal<Map<ActiveDescriptor<?>, Long>> creationStarts = ThreadLocal.withInitial(IdentityHashMap::new);
+
+        @Override
+        public Filter getFilter() {
+            return BuilderHelper.allFilter();
+        }
+
+        @Override
+        public void lifecycleEvent(InstanceLifecycleEvent lifecycleEvent) {
+            if (!recording) {
+                // Drops anything left behind by creations that failed, or that were still running when recording stopped
+                creationStarts.remove();
+                return;
+            }
+            ActiveDescriptor<?> descriptor = lifecycleEvent.getActiveDescriptor();
+            if (lifecycleEvent.getEventType() == InstanceLifecycleEventType.PRE_PRODUCTION) {
+                creationStarts.get().put(descriptor, System.nanoTime());
+            } else if (lifecycleEvent.getEventType() == InstanceLifecycleEventType.POST_PRODUCTION) {
+                Long start = creationStarts.get().remove(descriptor);
+                if (start == null) {
+                    return;
+                }
+                boolean immediate = Immediate.class.getName().equals(descriptor.getScope());
+                String name = descriptor.getImplementation() == null ? String.valueOf(descriptor) : descriptor.getImplementation();
+                recordSince(immediate ? Category.IMMEDIATE_SERVICE : Category.SERVICE_CREATION, name, start);
+            }
+        }
+    }
+
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+
+    private final CreationListener creationListener = new CreationListener();
+
+    /**
+     * Descriptors of the installed creation listeners, and the locators they were installed into
+     */
+    private final Map<ActiveDescriptor<?>, ServiceLocator> installedListeners = new ConcurrentHashMap<>();
+
+    @Getter
+    private volatile boolean enabled = false;
+
+    private volatile boolean recording = true;
+
+    private volatile MetricRegistry metrics;
+
+    /**
+     * Records a step of startup that began at {@code startNanos}
+     *
+     * @param category
+     *     Kind of step
+     * @param name
+     *     Description of the step
+     * @param startNanos
+     *     {@link System#nanoTime()} at which the step began
+     */
+    public void recordSince(@NonNull Category category, @NonNull String name, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(category, name, System.nanoTime() - startNanos);
+        entries.add(entry);
+        MetricRegistry registry = metrics;
+        if (registry != null) {
+            publish(registry, entry);
+        }
+    }
+
+    /**
+     * @return All recorded steps, most expensive first
+     */
+    public List<Entry> getTimeline() {
+        List<Entry> timeline = new ArrayList<>(entries);
+        timeline.sort(Comparator.comparingLong(Entry::getDurationNanos).reversed());
+        return timeline;
+    }
+
+    /**
+     * Adds the listener that times service creation to a locator's configuration; The listener is local so each locator times only the
+     * services it creates itself, and it is removed again when startup {@link #finish() finishes}.
+     *
+     * @param locator
+     *     Locator the configuration belongs to
+     * @param config
+     *     Configuration to add the listener to, which the caller must commit
+     */
+    void installCreationListener(@NonNull ServiceLocator locator, @NonNull DynamicConfiguration config) {
+        installedListeners.put(config.addActiveDescriptor(getCreationListenerDescriptor()), locator);
+    }
+
+    private AbstractActiveDescriptor<InstanceLifecycleListener> getCreationListenerDescriptor() {
+        AbstractActiveDescriptor<InstanceLifecycleListener> descriptor = BuilderHelper.createConstantDescriptor(
+            creationListener,
+            null,
+            InstanceLifecycleListener.class
+        );
+        descriptor.setDescriptorVisibility(DescriptorVisibility.LOCAL);
+        descriptor.setScope(Singleton.class.getName());
+        return descriptor;
+    }
+
+    void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Publishes the timeline to a metric registry, including steps recorded so far
+     *
+     * @param registry
+     *     Registry in which to create one timer per {@link Category}
+     */
+    void publishTo(@NonNull MetricRegistry registry) {
+        metrics = registry;
+        entries.forEach(entry -> publish(registry, entry));
+    }
+
+    /**
+     * Marks the end of startup, and removes the listeners that time service creation so that services created afterwards, such as
+     * request-scoped ones, cost nothing
+     */
+    void finish() {
+        recording = false;
+        installedListeners.forEach((descriptor, locator) -> {
+            if (locator.getState() == ServiceLocatorState.RUNNING) {
+                ServiceLocatorUtilities.removeOneDescriptor(locator, descriptor);
+            }
+        });
+        installedListeners.clear();
+    }
+
+    private static void publish(MetricRegistry registry, Entry entry) {
+        // Steps are only listed by the task; A timer per step would add a metric per service class to every reporter
+        String category = entry.getCategory().name().toLowerCase(Locale.ROOT);
+        registry.timer(name(StartupProfiler.class, category)).update(entry.getDurationNanos(), TimeUnit.NANOSECONDS);
+    }
+}
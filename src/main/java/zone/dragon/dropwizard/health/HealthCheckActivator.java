@@ -32,6 +32,7 @@ import jakarta.inject.Inject;
 import org.glassfish.hk2.api.ServiceLocator;
 
 import com.codahale.metrics.health.HealthCheckRegistry;
+import com.codahale.metrics.health.annotation.Async;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -39,7 +40,9 @@ import zone.dragon.dropwizard.ComponentActivator;
 
 /**
  * Activates and initializes all {@link InjectableHealthCheck health checks} registered with Jersey and adds them to DropWizard's
- * {@link HealthCheckRegistry}.
+ * {@link HealthCheckRegistry}. Each check is registered through the {@link HealthCheckExecutor}, so that checks run in parallel and within
+ * their {@link HealthCheckTimeout timeouts}. With {@link #LAZY_ACTIVATION lazy activation}, named checks are only created when they first
+ * run.
  *
  * @author Bryan Harclerode
  */
@@ -47,10 +50,15 @@ import zone.dragon.dropwizard.ComponentActivator;
 public class HealthCheckActivator extends ComponentActivator {
     private final HealthCheckRegistry registry;
 
+    private final HealthCheckExecutor executor;
+
     @Inject
-    public HealthCheckActivator(@NonNull ServiceLocator locator, @NonNull HealthCheckRegistry registry) {
+    public HealthCheckActivator(
+        @NonNull ServiceLocator locator, @NonNull HealthCheckRegistry registry, @NonNull HealthCheckExecutor executor
+    ) {
         super(locator);
         this.registry = registry;
+        this.executor = executor;
     }
 
     @Override
@@ -61,7 +69,15 @@ public class HealthCheckActivator extends ComponentActivator {
                 name = String.format("%s.%s", component.getClass().getSimpleName(), UUID.randomUUID());
             }
             log.info("Registering health check {}", name);
-            registry.register(name, component);
+            registry.register(name, executor.wrap(component));
+        }, (name, implementation, component) -> {
+            // The registry schedules @Async checks by inspecting the registered check, so these must be the real thing
+            if (name == null || implementation.isAnnotationPresent(Async.class)) {
+                return false;
+            }
+            log.info("Registering lazy health check {}", name);
+            registry.register(name, executor.wrap(new LazyHealthCheck(implementation, component), implementation));
+            return true;
         });
     }
 }
@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.health;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.annotation.Async;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import zone.dragon.dropwizard.ParallelExecution;
+
+/**
+ * Enforces the {@link HealthCheckTimeout timeouts} of {@link InjectableHealthCheck health checks} and provides the executor that runs them
+ * in parallel. Checks with a timeout run on virtual threads when the JVM supports them, or on a bounded pool of daemon threads otherwise,
+ * so that the caller can stop waiting for them; Checks without one run on the caller's thread.
+ * <p>
+ * Running a single check only ever runs that check. Checks run in parallel when the whole
+ * {@link com.codahale.metrics.health.HealthCheckRegistry} is run with {@link #getRegistryExecutor()}, as the admin health check servlet
+ * does once {@link zone.dragon.dropwizard.HK2Bundle#enableParallelHealthChecks()} has installed it.
+ * <p>
+ * Checks annotated with {@link HealthCheckSchedule @HealthCheckSchedule} are instead run in the background, and requests are answered with
+ * the most recent result. Checks annotated with {@link Async @Async} are scheduled by the registry itself, so they are not wrapped.
+ */
+@Slf4j
+@Singleton
+public class HealthCheckExecutor {
+    /**
+     * Maximum number of threads in each pool when virtual threads are not available; Checks beyond this wait for a thread, and the wait
+     * counts against their timeout
+     */
+    private static final int MAX_THREADS = 16;
+
+    private final ExecutorService executor = ParallelExecution.newVirtualThreadExecutor("health-check-%d", MAX_THREADS);
+
+    /**
+     * Executor for {@link com.codahale.metrics.health.HealthCheckRegistry#runHealthChecks(ExecutorService)}; This is separate from the pool
+     * that enforces timeouts, so that checks waiting on that pool can never use up the threads it needs.
+     */
+    @Getter
+    private final ExecutorService registryExecutor = ParallelExecution.newVirtualThreadExecutor("health-check-registry-%d", MAX_THREADS);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("health-check-scheduler-%d")
+        .setDaemon(true)
+        .build());
+
+    /**
+     * Wraps a health check so that it runs on this executor, within the timeout declared by its {@link HealthCheckTimeout} annotation
+     *
+     * @param healthCheck
+     *     Health check to wrap
+     *
+     * @return Health check to register in place of {@code healthCheck}
+     */
+    public HealthCheck wrap(@NonNull InjectableHealthCheck healthCheck) {
+        return wrap(healthCheck, healthCheck.getClass());
+    }
+
+    /**
+     * Wraps a health check so that it runs on this executor, reading its annotations from another class; This is used to wrap stand-ins for
+     * health checks that have not been created yet.
+     *
+     * @param healthCheck
+     *     Health check to wrap
+     * @param annotatedType
+     *     Class that declares the health check's annotations
+     *
+     * @return Health check to register in place of {@code healthCheck}
+     */
+    public HealthCheck wrap(@NonNull InjectableHealthCheck healthCheck, @NonNull Class<?> annotatedType) {
+        if (annotatedType.isAnnotationPresent(Async.class)) {
+            return healthCheck;
+        }
+        HealthCheckTimeout timeout = annotatedType.getAnnotation(HealthCheckTimeout.class);
+        long timeoutNanos = timeout == null ? 0 : timeout.unit().toNanos(timeout.value());
+        HealthCheckSchedule schedule = annotatedType.getAnnotation(HealthCheckSchedule.class);
+        if (schedule != null) {
+            ScheduledHealthCheck wrapper = new ScheduledHealthCheck(healthCheck, timeoutNanos, schedule);
+            scheduleNext(wrapper, 0);
+            return wrapper;
+        }
+        return new TimeLimitedHealthCheck(healthCheck, timeoutNanos);
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+        registryExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void scheduleNext(ScheduledHealthCheck check, long intervalNanos) {
+        long delay = intervalNanos + (check.getJitterNanos() > 0 ? ThreadLocalRandom.current().nextLong(check.getJitterNanos()) : 0);
+        // The scheduler only hands the run off, so a slow check never delays the others; The run waits on the timeout pool, so it must not
+        // take one of that pool's threads itself
+        scheduler.schedule(() -> registryExecutor.execute(() -> {
+            try {
+                check.refresh();
+            } finally {
+                if (!scheduler.isShutdown()) {
+                    scheduleNext(check, check.getIntervalNanos());
+                }
+            }
+        }), delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs a check, on the pool if it has a timeout and on the calling thread otherwise
+     *
+     * @param check
+     *     Check to run
+     *
+     * @return Result of the check
+     */
+    protected HealthCheck.Result run(TimeLimitedHealthCheck check) {
+        if (check.getTimeoutNanos() <= 0) {
+            return check.getDelegate().execute();
+        }
+        long started = System.nanoTime();
+        return await(check, executor.submit(() -> check.getDelegate().execute()), started);
+    }
+
+    private HealthCheck.Result await(TimeLimitedHealthCheck check, Future<HealthCheck.Result> future, long started) {
+        try {
+            // Time spent waiting for a thread counts against the timeout
+            long remaining = check.getTimeoutNanos() - (System.nanoTime() - started);
+            return future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Health check {} timed out", check.getDelegate());
+            return HealthCheck.Result.unhealthy("Timed out after %d ms", TimeUnit.NANOSECONDS.toMillis(check.getTimeoutNanos()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return HealthCheck.Result.unhealthy("Interrupted while waiting for health check");
+        } catch (ExecutionException e) {
+            return HealthCheck.Result.unhealthy(e.getCause());
+        } catch (CancellationException e) {
+            return HealthCheck.Result.unhealthy("Health check was cancelled");
+        }
+    }
+
+    /**
+     * Health check that runs on the {@link HealthCheckExecutor}
+     */
+    @Getter
+    protected class TimeLimitedHealthCheck extends HealthCheck {
+        private final InjectableHealthCheck delegate;
+
+        /**
+         * Maximum time the check may run, or {@code 0} if it is not limited
+         */
+        private final long timeoutNanos;
+
+        protected TimeLimitedHealthCheck(InjectableHealthCheck delegate, long timeoutNanos) {
+            this.delegate = delegate;
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        @Override
+        protected Result check() {
+            return run(this);
+        }
+    }
+
+    /**
+     * Health check that runs in the background and answers with its most recent result
+     */
+    @Getter
+    protected class ScheduledHealthCheck extends TimeLimitedHealthCheck {
+        private final long intervalNanos;
+
+        private final long jitterNanos;
+
+        private volatile Result lastResult;
+
+        private volatile long lastRun;
+
+        protected ScheduledHealthCheck(InjectableHealthCheck delegate, long timeoutNanos, HealthCheckSchedule schedule) {
+            super(delegate, timeoutNanos);
+            this.intervalNanos = schedule.unit().toNanos(schedule.interval());
+            this.jitterNanos = schedule.unit().toNanos(schedule.jitter());
+        }
+
+        /**
+         * Runs the check now and remembers its result
+         *
+         * @return Result of the check
+         */
+        protected Result refresh() {
+            Result result = run(this);
+            lastRun = System.nanoTime();
+            lastResult = result;
+            return result;
+        }
+
+        @Override
+        protected Result check() {
+            Result result = lastResult;
+            long age = System.nanoTime() - lastRun;
+            if (result == null) {
+                // Nothing has finished in the background yet
+                result = refresh();
+                age = 0;
+            }
+            ResultBuilder builder = Result.builder();
+            if (result.isHealthy()) {
+                builder.healthy();
+            } else if (result.getError() != null) {
+                builder.unhealthy(result.getError());
+            } else {
+                builder.unhealthy();
+            }
+            if (result.getMessage() != null) {
+                builder.withMessage(result.getMessage());
+            }
+            if (result.getDetails() != null) {
+                result.getDetails().forEach(builder::withDetail);
+            }
+            return builder
+                .withDetail("checkedAt", result.getTimestamp())
+                .withDetail("ageMillis", TimeUnit.NANOSECONDS.toMillis(age))
+                .withDetail("stale", age > 2 * (intervalNanos + jitterNanos))
+                .build();
+        }
+    }
+}
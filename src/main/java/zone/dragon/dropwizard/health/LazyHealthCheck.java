@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.health;
+
+import java.util.function.Supplier;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stand-in for an {@link InjectableHealthCheck} that has not been created yet; The real check is created the first time this one runs.
+ *
+ * @author Bryan Harclerode
+ */
+@RequiredArgsConstructor
+class LazyHealthCheck extends InjectableHealthCheck {
+    @NonNull
+    private final Class<?> implementation;
+
+    @NonNull
+    private final Supplier<? extends HealthCheck> healthCheck;
+
+    @Override
+    protected Result check() {
+        return healthCheck.get().execute();
+    }
+
+    @Override
+    public String toString() {
+        return "LazyHealthCheck(" + implementation.getName() + ")";
+    }
+}
@@ -26,9 +26,11 @@
 package zone.dragon.dropwizard.lifecycle;
 
 import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Configuration;
 
 import org.eclipse.jetty.server.Server;
 import org.glassfish.hk2.api.ServiceLocator;
+import org.jvnet.hk2.annotations.Optional;
 
 import io.dropwizard.lifecycle.JettyManaged;
 import lombok.NonNull;
@@ -37,23 +39,45 @@ import zone.dragon.dropwizard.ComponentActivator;
 /**
  * Activates {@link InjectableLifeCycle}, {@link InjectableLifeCycleListener}, and {@link InjectableManaged} components registered with
  * Jersey and adds them to Jetty
+ * <p>
+ * By default, {@link InjectableManaged} and {@link InjectableLifeCycle} components are started one after another. Setting the
+ * {@link #PARALLEL_START} property to {@code true} on the Jersey environment starts them in parallel instead, using a
+ * {@link ParallelLifeCycleGroup} that orders them by their {@link StartAfter @StartAfter} annotations and injection dependencies.
  *
  * @author Bryan Harclerode
  */
 public class LifeCycleActivator extends ComponentActivator {
+    /**
+     * Jersey property that enables parallel start of {@link InjectableManaged} and {@link InjectableLifeCycle} components
+     */
+    public static final String PARALLEL_START = "zone.dragon.dropwizard.lifecycle.parallelStart";
+
     private final Server container;
 
+    private final boolean parallelStart;
+
     @Inject
-    public LifeCycleActivator(@NonNull ServiceLocator locator, @NonNull Server server) {
+    public LifeCycleActivator(@NonNull ServiceLocator locator, @NonNull Server server, @Optional Configuration configuration) {
         super(locator);
         container = server;
+        parallelStart = configuration != null && Boolean.parseBoolean(String.valueOf(configuration.getProperty(PARALLEL_START)));
     }
 
     @Override
     protected void activateComponents() {
         activate(InjectableContainerListener.class, (name, component) -> container.addEventListener(component));
-        activate(InjectableManaged.class, (name, component) -> container.addBean(new JettyManaged(component)));
-        activate(InjectableLifeCycle.class, (name, component) -> container.addBean(component));
+        if (parallelStart) {
+            ParallelLifeCycleGroup group = new ParallelLifeCycleGroup();
+            activate(
+                InjectableManaged.class,
+                (name, descriptor, component) -> group.add(descriptor, component, new JettyManaged(component))
+            );
+            activate(InjectableLifeCycle.class, (name, descriptor, component) -> group.add(descriptor, component, component));
+            container.addBean(group);
+        } else {
+            activate(InjectableManaged.class, (name, component) -> container.addBean(new JettyManaged(component)));
+            activate(InjectableLifeCycle.class, (name, component) -> container.addBean(component));
+        }
         activate(InjectableLifeCycleListener.class, (name, component) -> {
             container.addEventListener(component);
             // synthesize starting and started event since we've already begun.
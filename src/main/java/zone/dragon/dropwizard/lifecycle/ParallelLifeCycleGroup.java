@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.lifecycle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.glassfish.hk2.api.ActiveDescriptor;
+import org.glassfish.hk2.api.Injectee;
+
+import com.google.common.collect.Lists;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import zone.dragon.dropwizard.ParallelExecution;
+
+/**
+ * Starts a group of components in parallel while respecting the dependencies between them, and stops them in reverse order, also in
+ * parallel. A component depends on another component if it is annotated with {@link StartAfter @StartAfter} naming one of the other
+ * component's types, or if HK2 injects one of the other component's types into it.
+ * <p>
+ * If any component fails to start, the components that did start are stopped and the failure is rethrown.
+ */
+@Slf4j
+public class ParallelLifeCycleGroup extends AbstractLifeCycle {
+    /**
+     * Maximum number of components started or stopped at once
+     */
+    private static final int MAX_THREADS = 16;
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    private List<Node> startOrder;
+
+    private Map<Node, Set<Node>> dependencies;
+
+    /**
+     * Adds a component to the group
+     *
+     * @param descriptor
+     *     Descriptor of the component, used to find its injection dependencies, or {@code null} if it has none
+     * @param component
+     *     Component instance, used to match it against the dependencies of other components
+     * @param lifeCycle
+     *     Life cycle that starts and stops the component
+     */
+    public synchronized void add(ActiveDescriptor<?> descriptor, @NonNull Object component, @NonNull LifeCycle lifeCycle) {
+        nodes.add(new Node(descriptor, component, lifeCycle));
+        startOrder = null;
+    }
+
+    @Override
+    protected synchronized void doStart() throws Exception {
+        sortNodes();
+        ExecutorService executor = ParallelExecution.newExecutor("lifecycle-%d", MAX_THREADS);
+        try {
+            Map<Node, CompletableFuture<Void>> started = ParallelExecution.run(startOrder, dependencies, Node::start, executor);
+            CompletableFuture.allOf(started.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            log.error("Failed to start components; Stopping the components that did start");
+            stopNodes(executor);
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    protected synchronized void doStop() {
+        ExecutorService executor = ParallelExecution.newExecutor("lifecycle-%d", MAX_THREADS);
+        try {
+            stopNodes(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void stopNodes(ExecutorService executor) {
+        if (startOrder == null) {
+            return;
+        }
+        // Stop in reverse, so each component waits for the components that depend on it
+        Map<Node, Set<Node>> dependents = new IdentityHashMap<>();
+        for (Node node : startOrder) {
+            for (Node dependency : dependencies.get(node)) {
+                dependents.computeIfAbsent(dependency, key -> new LinkedHashSet<>()).add(node);
+            }
+        }
+        Map<Node, CompletableFuture<Void>> stopped = ParallelExecution.run(Lists.reverse(startOrder), dependents, Node::stop, executor);
+        CompletableFuture.allOf(stopped.values().toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Resolves the dependencies between the nodes and orders them so that every node comes after its dependencies
+     *
+     * @throws IllegalStateException
+     *     if the dependencies are circular
+     */
+    private void sortNodes() {
+        dependencies = new IdentityHashMap<>();
+        for (Node node : nodes) {
+            dependencies.put(node, findDependencies(node));
+        }
+        List<Node> order = ParallelExecution.sort(nodes, dependencies);
+        if (order.size() < nodes.size()) {
+            Set<Node> sorted = Collections.newSetFromMap(new IdentityHashMap<>());
+            sorted.addAll(order);
+            List<Object> circular = new ArrayList<>();
+            nodes.stream().filter(node -> !sorted.contains(node)).forEach(node -> circular.add(node.component));
+            throw new IllegalStateException("Circular start dependencies between " + circular);
+        }
+        startOrder = order;
+    }
+
+    private Set<Node> findDependencies(Node node) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        StartAfter startAfter = node.component.getClass().getAnnotation(StartAfter.class);
+        if (startAfter != null) {
+            types.addAll(List.of(startAfter.value()));
+        }
+        if (node.descriptor != null) {
+            for (Injectee injectee : node.descriptor.getInjectees()) {
+                Class<?> type = ParallelExecution.getDependencyType(injectee.getRequiredType());
+                if (type != null && type != Object.class) {
+                    types.add(type);
+                }
+            }
+        }
+        Set<Node> dependencies = new LinkedHashSet<>();
+        for (Node other : nodes) {
+            if (other != node && types.stream().anyMatch(type -> type.isInstance(other.component))) {
+                dependencies.add(other);
+            }
+        }
+        return dependencies;
+    }
+
+    private static class Node {
+        private final ActiveDescriptor<?> descriptor;
+
+        private final Object component;
+
+        private final LifeCycle lifeCycle;
+
+        private Node(ActiveDescriptor<?> descriptor, Object component, LifeCycle lifeCycle) {
+            this.descriptor = descriptor;
+            this.component = component;
+            this.lifeCycle = lifeCycle;
+        }
+
+        private void start() {
+            try {
+                lifeCycle.start();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }
+
+        private void stop() {
+            try {
+                if (lifeCycle.isRunning()) {
+                    lifeCycle.stop();
+                }
+            } catch (Exception e) {
+                log.warn("Failed to stop {}", component, e);
+            }
+        }
+    }
+}
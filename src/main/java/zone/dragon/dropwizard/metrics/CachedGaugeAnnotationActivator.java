@@ -25,8 +25,8 @@
 
 package zone.dragon.dropwizard.metrics;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.Supplier;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -65,19 +65,14 @@ public class CachedGaugeAnnotationActivator extends MethodAnnotationActivator<Ca
             log.error("@CachedGauge placed on method {} which must have zero parameters, but has {}", method, method.getParameterCount());
             return;
         }
+        Supplier<Object> accessor = GaugeAccessors.createSupplier(service, method);
         com.codahale.metrics.CachedGauge<?> gauge = new com.codahale.metrics.CachedGauge<>(
             annotation.timeout(),
             annotation.timeoutUnit()
         ) {
             @Override
             protected Object loadValue() {
-                try {
-                    return method.invoke(service);
-                } catch (Exception e) {
-                    throw new RuntimeException("Failed to read gauge value from " + method, e instanceof InvocationTargetException ? (
-                        (InvocationTargetException) e
-                    ).getTargetException() : e);
-                }
+                return accessor.get();
             }
         };
         String name = metricNameService.getFormattedMetricName(method, com.codahale.metrics.CachedGauge.class);
@@ -0,0 +1,303 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.jvnet.hk2.annotations.Optional;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Maps;
+
+import lombok.NonNull;
+import lombok.Value;
+import zone.dragon.dropwizard.metrics.MetricHandleCache.MetricSupplier;
+import zone.dragon.dropwizard.metrics.naming.DefaultMetricNameFormatter;
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameFormatter;
+
+/**
+ * Registry of metrics keyed by {@link MetricName}, so that the name and tags of a metric are available without parsing its formatted name.
+ * Looking up an existing metric is a single hash lookup on the {@link MetricName}; A name is only formatted when its metric is first
+ * created.
+ * <p>
+ * Every metric is also registered in the underlying {@link MetricRegistry} under its {@link MetricNameFormatter formatted} name, so
+ * reporters that only understand flat names keep working. Reporters that understand tags can use {@link #getMetrics()}, or
+ * {@link #getMetricName(String)} to recover the tags of a flat name. Metrics removed from the underlying registry are also removed from
+ * this one.
+ * <p>
+ * This registry is not bound by default; Once it is bound, with {@link zone.dragon.dropwizard.HK2Bundle#enableDimensionalMetrics()}, the
+ * metric interceptors and injected metrics create their metrics through it.
+ */
+@Singleton
+public class DimensionalMetricRegistry {
+    private final ConcurrentMap<MetricName, Registration> metrics = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, MetricName> metricNames = new ConcurrentHashMap<>();
+
+    private final RemovalListener removalListener = new RemovalListener();
+
+    private final MetricRegistry metricRegistry;
+
+    private final MetricNameFormatter formatter;
+
+    @Inject
+    public DimensionalMetricRegistry(@NonNull MetricRegistry metricRegistry, @Optional MetricNameFormatter formatter) {
+        this.metricRegistry = metricRegistry;
+        this.formatter = formatter == null ? new DefaultMetricNameFormatter() : formatter;
+        metricRegistry.addListener(removalListener);
+    }
+
+    /**
+     * Return the {@link Counter} registered under this name; or create and register a new {@link Counter} if none is registered.
+     *
+     * @param name
+     *     the name of the metric
+     *
+     * @return a new or pre-existing {@link Counter}
+     */
+    public Counter counter(@NonNull MetricName name) {
+        return getOrAdd(name, Counter.class, MetricRegistry::counter);
+    }
+
+    /**
+     * Return the {@link Histogram} registered under this name; or create and register a new {@link Histogram} if none is registered.
+     *
+     * @param name
+     *     the name of the metric
+     *
+     * @return a new or pre-existing {@link Histogram}
+     */
+    public Histogram histogram(@NonNull MetricName name) {
+        return getOrAdd(name, Histogram.class, MetricRegistry::histogram);
+    }
+
+    /**
+     * Return the {@link Meter} registered under this name; or create and register a new {@link Meter} if none is registered.
+     *
+     * @param name
+     *     the name of the metric
+     *
+     * @return a new or pre-existing {@link Meter}
+     */
+    public Meter meter(@NonNull MetricName name) {
+        return getOrAdd(name, Meter.class, MetricRegistry::meter);
+    }
+
+    /**
+     * Return the {@link Timer} registered under this name; or create and register a new {@link Timer} if none is registered.
+     *
+     * @param name
+     *     the name of the metric
+     *
+     * @return a new or pre-existing {@link Timer}
+     */
+    public Timer timer(@NonNull MetricName name) {
+        return getOrAdd(name, Timer.class, MetricRegistry::timer);
+    }
+
+    /**
+     * Registers a metric under a name
+     *
+     * @param name
+     *     the name of the metric
+     * @param metric
+     *     the metric
+     * @param <T>
+     *     the type of the metric
+     *
+     * @return {@code metric}
+     *
+     * @throws IllegalArgumentException
+     *     if the name is already registered
+     */
+    public <T extends Metric> T register(@NonNull MetricName name, @NonNull T metric) {
+        metrics.compute(name, (key, existing) -> {
+            if (existing != null) {
+                throw new IllegalArgumentException("A metric named " + key + " already exists");
+            }
+            return add(key, (registry, flatName) -> registry.register(flatName, metric));
+        });
+        return metric;
+    }
+
+    /**
+     * Removes the metric with the given name from this registry and the underlying registry
+     *
+     * @param name
+     *     the name of the metric
+     *
+     * @return whether the metric was removed
+     */
+    public boolean remove(@NonNull MetricName name) {
+        Registration registration = metrics.get(name);
+        return registration != null && metricRegistry.remove(registration.getFlatName());
+    }
+
+    /**
+     * @return Unmodifiable view of all metrics in this registry, keyed by name
+     */
+    public Map<MetricName, Metric> getMetrics() {
+        return Collections.unmodifiableMap(Maps.transformValues(metrics, Registration::getMetric));
+    }
+
+    /**
+     * Recovers the name and tags of a metric from the name it is registered under in the underlying {@link MetricRegistry}
+     *
+     * @param flatName
+     *     Formatted name of the metric
+     *
+     * @return Name of the metric, or {@code null} if the metric was not created through this registry
+     */
+    public MetricName getMetricName(@NonNull String flatName) {
+        return metricNames.get(flatName);
+    }
+
+    /**
+     * Returns the name a metric is registered under in the underlying {@link MetricRegistry}, without formatting it again
+     *
+     * @param name
+     *     Name of the metric
+     *
+     * @return Formatted name of the metric, or {@code null} if the metric is not in this registry
+     */
+    public String getFlatName(@NonNull MetricName name) {
+        Registration registration = metrics.get(name);
+        return registration == null ? null : registration.getFlatName();
+    }
+
+    @PreDestroy
+    public void close() {
+        metricRegistry.removeListener(removalListener);
+    }
+
+    /**
+     * Returns the metric registered under a name, or creates it in the underlying registry under its formatted name if none is registered
+     *
+     * @param name
+     *     Name of the metric
+     * @param metricType
+     *     Type of the metric
+     * @param supplier
+     *     Creates the metric in the underlying registry, such as {@link MetricRegistry#timer(String)}
+     * @param <T>
+     *     Type of the metric
+     *
+     * @return a new or pre-existing metric
+     *
+     * @throws IllegalArgumentException
+     *     if the name is already used for a different type of metric
+     */
+    public <T extends Metric> T getOrAdd(@NonNull MetricName name, @NonNull Class<T> metricType, @NonNull MetricSupplier<T> supplier) {
+        Registration registration = metrics.get(name);
+        if (registration == null) {
+            registration = metrics.computeIfAbsent(name, key -> add(key, supplier));
+        }
+        Metric metric = registration.getMetric();
+        if (!metricType.isInstance(metric)) {
+            throw new IllegalArgumentException(name + " is already used for a different type of metric");
+        }
+        return metricType.cast(metric);
+    }
+
+    /**
+     * Creates a metric in the underlying registry; This is only called while the entry for {@code name} is locked, so a removal of the
+     * same metric waits for it to finish.
+     */
+    private Registration add(MetricName name, MetricSupplier<?> supplier) {
+        String flatName = formatter.formatName(name);
+        // Mapped first so that a removal racing with the creation finds the name, and waits on the entry before removing it
+        metricNames.put(flatName, name);
+        try {
+            return new Registration(flatName, supplier.get(metricRegistry, flatName));
+        } catch (RuntimeException e) {
+            metricNames.remove(flatName, name);
+            throw e;
+        }
+    }
+
+    protected void onRemoved(String flatName) {
+        MetricName name = metricNames.get(flatName);
+        if (name == null) {
+            return;
+        }
+        metrics.computeIfPresent(name, (key, registration) -> {
+            // Keep a metric that was created again under the same name after this removal
+            if (metricRegistry.getMetrics().get(flatName) == registration.getMetric()) {
+                return registration;
+            }
+            metricNames.remove(flatName, key);
+            return null;
+        });
+    }
+
+    @Value
+    private static class Registration {
+        String flatName;
+
+        Metric metric;
+    }
+
+    private class RemovalListener extends MetricRegistryListener.Base {
+        @Override
+        public void onGaugeRemoved(String name) {
+            onRemoved(name);
+        }
+
+        @Override
+        public void onCounterRemoved(String name) {
+            onRemoved(name);
+        }
+
+        @Override
+        public void onHistogramRemoved(String name) {
+            onRemoved(name);
+        }
+
+        @Override
+        public void onMeterRemoved(String name) {
+            onRemoved(name);
+        }
+
+        @Override
+        public void onTimerRemoved(String name) {
+            onRemoved(name);
+        }
+    }
+}
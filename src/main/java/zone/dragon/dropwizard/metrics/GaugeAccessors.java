@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds accessors for gauge methods that avoid reflective dispatch when the gauge is read. Accessors are generated with
+ * {@link LambdaMetafactory} where possible, and fall back to a {@link MethodHandle} if the method can't be bound to a lambda, such as
+ * static methods or methods on classes loaded by a different class loader.
+ */
+@Slf4j
+@UtilityClass
+public class GaugeAccessors {
+    /**
+     * Creates a gauge that reads its value from a method; Methods returning {@code long}, {@code double}, or {@code int} produce a
+     * {@link LongGauge}, {@link DoubleGauge}, or {@link IntGauge} respectively, so that their values can be read without boxing.
+     *
+     * @param service
+     *     Instance on which {@code method} is invoked
+     * @param method
+     *     Parameterless method that produces the gauge value
+     *
+     * @return Gauge that reads the current value of {@code method}
+     */
+    public Gauge<?> createGauge(@NonNull Object service, @NonNull Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == long.class) {
+            ToLongFunction<Object> accessor = generate(method, ToLongFunction.class, "applyAsLong", long.class);
+            if (accessor == null) {
+                MethodHandle handle = createHandle(method, long.class);
+                accessor = instance -> invokeLong(handle, instance);
+            }
+            ToLongFunction<Object> longAccessor = accessor;
+            return (LongGauge) () -> {
+                try {
+                    return longAccessor.applyAsLong(service);
+                } catch (Exception e) {
+                    throw readFailure(method, e);
+                }
+            };
+        }
+        if (returnType == double.class) {
+            ToDoubleFunction<Object> accessor = generate(method, ToDoubleFunction.class, "applyAsDouble", double.class);
+            if (accessor == null) {
+                MethodHandle handle = createHandle(method, double.class);
+                accessor = instance -> invokeDouble(handle, instance);
+            }
+            ToDoubleFunction<Object> doubleAccessor = accessor;
+            return (DoubleGauge) () -> {
+                try {
+                    return doubleAccessor.applyAsDouble(service);
+                } catch (Exception e) {
+                    throw readFailure(method, e);
+                }
+            };
+        }
+        if (returnType == int.class) {
+            ToIntFunction<Object> accessor = generate(method, ToIntFunction.class, "applyAsInt", int.class);
+            if (accessor == null) {
+                MethodHandle handle = createHandle(method, int.class);
+                accessor = instance -> invokeInt(handle, instance);
+            }
+            ToIntFunction<Object> intAccessor = accessor;
+            return (IntGauge) () -> {
+                try {
+                    return intAccessor.applyAsInt(service);
+                } catch (Exception e) {
+                    throw readFailure(method, e);
+                }
+            };
+        }
+        Supplier<Object> supplier = createSupplier(service, method);
+        return supplier::get;
+    }
+
+    /**
+     * Creates a supplier that reads a value from a method
+     *
+     * @param service
+     *     Instance on which {@code method} is invoked
+     * @param method
+     *     Parameterless method that produces the value
+     *
+     * @return Supplier that invokes {@code method}, wrapping any exception it throws in a {@link RuntimeException}
+     */
+    public Supplier<Object> createSupplier(@NonNull Object service, @NonNull Method method) {
+        Function<Object, Object> accessor = createAccessor(method);
+        return () -> {
+            try {
+                return accessor.apply(service);
+            } catch (Exception e) {
+                throw readFailure(method, e);
+            }
+        };
+    }
+
+    /**
+     * Creates an accessor that invokes a parameterless method on the instance passed to it and boxes the result
+     *
+     * @param method
+     *     Method to invoke
+     *
+     * @return Accessor for {@code method}
+     */
+    public Function<Object, Object> createAccessor(@NonNull Method method) {
+        Function<Object, Object> accessor = null;
+        if (method.getReturnType() != void.class) {
+            accessor = generate(method, Function.class, "apply", Object.class);
+        }
+        if (accessor == null) {
+            MethodHandle handle = createHandle(method, Object.class);
+            accessor = instance -> invoke(handle, instance);
+        }
+        return accessor;
+    }
+
+    private RuntimeException readFailure(Method method, Exception e) {
+        return new RuntimeException("Failed to read gauge value from " + method, e);
+    }
+
+    /**
+     * Spins a lambda implementing {@code functionType} that invokes {@code method} directly on its argument
+     *
+     * @return The generated accessor, or {@code null} if one could not be generated
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T generate(Method method, Class<? super T> functionType, String functionName, Class<?> returnType) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+            // Box primitive results if the function returns an object
+            MethodType instantiatedType = returnType.isPrimitive() ? handle.type() : handle.type().wrap();
+            CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                functionName,
+                MethodType.methodType(functionType),
+                MethodType.methodType(returnType, Object.class),
+                handle,
+                instantiatedType
+            );
+            return (T) site.getTarget().invoke();
+        } catch (Throwable t) {
+            log.debug("Unable to generate accessor for {}, falling back to a method handle", method, t);
+            return null;
+        }
+    }
+
+    /**
+     * Creates a method handle with the signature {@code (Object)returnType} that invokes {@code method}
+     */
+    @SneakyThrows(IllegalAccessException.class)
+    private MethodHandle createHandle(Method method, Class<?> returnType) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup()).unreflect(method);
+        } catch (IllegalAccessException e) {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asType(MethodType.methodType(returnType, Object.class));
+    }
+
+    @SneakyThrows
+    private Object invoke(MethodHandle handle, Object instance) {
+        return (Object) handle.invokeExact(instance);
+    }
+
+    @SneakyThrows
+    private long invokeLong(MethodHandle handle, Object instance) {
+        return (long) handle.invokeExact(instance);
+    }
+
+    @SneakyThrows
+    private double invokeDouble(MethodHandle handle, Object instance) {
+        return (double) handle.invokeExact(instance);
+    }
+
+    @SneakyThrows
+    private int invokeInt(MethodHandle handle, Object instance) {
+        return (int) handle.invokeExact(instance);
+    }
+}
@@ -25,7 +25,6 @@
 
 package zone.dragon.dropwizard.metrics;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import jakarta.inject.Inject;
@@ -43,7 +42,8 @@ import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 
 /**
  * When a {@link Singleton singleton} is activated, any parameterless methods annotated with {@link Gauge @Gauge} will be used to provide
- * values for a {@link com.codahale.metrics.Gauge Gauge}
+ * values for a {@link com.codahale.metrics.Gauge Gauge}; Methods returning {@code long}, {@code double}, or {@code int} are exposed as a
+ * {@link LongGauge}, {@link DoubleGauge}, or {@link IntGauge}.
  */
 @Slf4j
 @Singleton
@@ -65,15 +65,7 @@ public class GaugeAnnotationActivator extends MethodAnnotationActivator<Gauge> {
             log.error("@Gauge placed on method {} which must have zero parameters, but has {}", method, method.getParameterCount());
             return;
         }
-        com.codahale.metrics.Gauge<?> gauge = () -> {
-            try {
-                return method.invoke(service);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to read gauge value from " + method, e instanceof InvocationTargetException ? (
-                    (InvocationTargetException) e
-                ).getTargetException() : e);
-            }
-        };
+        com.codahale.metrics.Gauge<?> gauge = GaugeAccessors.createGauge(service, method);
         String name = metricNameService.getFormattedMetricName(method, com.codahale.metrics.Gauge.class);
         log.debug("Activating gauge {} monitoring {}", name, method);
         metricRegistry.register(name, gauge);
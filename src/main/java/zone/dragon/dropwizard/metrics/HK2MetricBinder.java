@@ -27,6 +27,7 @@ package zone.dragon.dropwizard.metrics;
 
 import jakarta.inject.Singleton;
 
+import org.glassfish.hk2.api.DynamicConfigurationListener;
 import org.glassfish.hk2.api.InstanceLifecycleListener;
 import org.glassfish.hk2.api.TypeLiteral;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
@@ -40,6 +41,7 @@ import com.codahale.metrics.annotation.Timed;
 import zone.dragon.dropwizard.AnnotatedConstructorInterceptorFactory;
 import zone.dragon.dropwizard.AnnotatedMethodInterceptorFactory;
 import zone.dragon.dropwizard.AnnotationInterceptionService;
+import zone.dragon.dropwizard.lifecycle.InjectableManaged;
 import zone.dragon.dropwizard.metrics.interceptors.CountedInterceptorFactory;
 import zone.dragon.dropwizard.metrics.interceptors.ExceptionMeteredInterceptorFactory;
 import zone.dragon.dropwizard.metrics.interceptors.MeteredInterceptorFactory;
@@ -59,10 +61,15 @@ public class HK2MetricBinder extends AbstractBinder {
     @Override
     protected void configure() {
         // Binding naming services
-        bind(DefaultMetricNameService.class).to(MetricNameService.class).in(Singleton.class);
+        bind(DefaultMetricNameService.class)
+            .to(MetricNameService.class)
+            .to(DynamicConfigurationListener.class)
+            .in(Singleton.class);
         bind(DefaultMetricNameFormatter.class).to(MetricNameFormatter.class).in(Singleton.class);
         bind(CodahaleMetricNameFilter.class).to(MetricNameFilter.class).in(Singleton.class).ranked(MetricNameFilter.DEFAULT_NAME_PRIORITY);
-        bindAsContract(TaggedMetricRegistry.class).in(Singleton.class);
+        bindAsContract(TaggedMetricRegistry.class).to(InjectableManaged.class).in(Singleton.class);
+        bindAsContract(MetricHandleCache.class).in(Singleton.class);
+        bindAsContract(ReservoirFactory.class).in(Singleton.class);
         // Bind Metric method handlers
         bind(GaugeAnnotationActivator.class).to(InstanceLifecycleListener.class).in(Singleton.class);
         bind(CachedGaugeAnnotationActivator.class).to(InstanceLifecycleListener.class).in(Singleton.class);
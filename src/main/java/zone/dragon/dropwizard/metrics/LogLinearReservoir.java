@@ -0,0 +1,314 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.google.common.math.LongMath;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Reservoir that counts values in log-linear buckets, in the style of an HDR histogram, instead of sampling them. Every value is recorded
+ * with a single atomic increment and no allocation, and percentiles are accurate to within the bucket precision all the way out to the
+ * tail, where sampling reservoirs are least accurate.
+ * <p>
+ * As with HdrHistogram, the reservoir is sized by the highest value it tracks and the number of significant decimal digits it keeps.
+ * Values are reported as the highest value of their bucket, which overstates them by less than {@code 10^-digits}; Values up to
+ * {@code 2 * 10^digits} are counted exactly. Negative values are recorded as zero, and values above the highest trackable value are
+ * recorded as that value. The reservoir keeps two counts for each bucket, so with the defaults of {@value #DEFAULT_SIGNIFICANT_DIGITS}
+ * digits up to one minute in nanoseconds it takes about 60 KB.
+ * <p>
+ * Snapshots cover the values recorded since the start of the previous interval, so they always include between one and two intervals of
+ * data. Intervals roll over when a snapshot is taken, so every reader sees the same window regardless of how often snapshots are taken.
+ */
+public class LogLinearReservoir implements Reservoir {
+    /**
+     * Default number of significant decimal digits, which keeps values within 1% of their true value
+     */
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+    /**
+     * Default highest trackable value, which is one minute when recording nanoseconds
+     */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Number of leading bits of a value that are kept; Enough to tell apart values that differ by {@code 10^-digits} of their magnitude
+     */
+    private final int significantBits;
+
+    private final long highestTrackableValue;
+
+    private final Clock clock;
+
+    private final long intervalNanos;
+
+    /**
+     * Counts recorded during the current interval
+     */
+    private volatile AtomicLongArray currentCounts;
+
+    /**
+     * Counts recorded during the previous interval
+     */
+    private AtomicLongArray previousCounts;
+
+    private long intervalStart;
+
+    public LogLinearReservoir() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    public LogLinearReservoir(long highestTrackableValue, int significantDigits) {
+        this(highestTrackableValue, significantDigits, 1, TimeUnit.MINUTES, Clock.defaultClock());
+    }
+
+    public LogLinearReservoir(long highestTrackableValue, int significantDigits, long interval, TimeUnit intervalUnit, Clock clock) {
+        checkArgument(highestTrackableValue > 0, "highestTrackableValue must be positive");
+        checkArgument(significantDigits >= 0 && significantDigits <= 5, "significantDigits must be between 0 and 5");
+        checkArgument(interval > 0, "interval must be positive");
+        // Smallest number of bits that can count every value up to 2 * 10^digits exactly, as HdrHistogram does
+        this.significantBits = 64 - Long.numberOfLeadingZeros(2 * LongMath.pow(10, significantDigits) - 1);
+        this.highestTrackableValue = highestTrackableValue;
+        this.clock = clock;
+        this.intervalNanos = intervalUnit.toNanos(interval);
+        int bucketCount = getBucketIndex(highestTrackableValue) + 1;
+        this.currentCounts = new AtomicLongArray(bucketCount);
+        this.previousCounts = new AtomicLongArray(bucketCount);
+        this.intervalStart = clock.getTick();
+    }
+
+    /**
+     * Finds the bucket that counts a value; The first {@code 2^significantBits} buckets each count a single value, and every following
+     * group of {@code 2^(significantBits - 1)} buckets covers twice the range of the group before it
+     *
+     * @param value
+     *     Non-negative value
+     *
+     * @return Index of the bucket counting {@code value}
+     */
+    protected int getBucketIndex(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < significantBits) {
+            return (int) value;
+        }
+        int shift = magnitude - significantBits + 1;
+        return (shift << (significantBits - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * @return Lowest value counted by a bucket
+     */
+    protected long getLowestValue(int index) {
+        if (index < (1 << significantBits)) {
+            return index;
+        }
+        int shift = (index >>> (significantBits - 1)) - 1;
+        long mantissa = index - ((long) shift << (significantBits - 1));
+        return mantissa << shift;
+    }
+
+    /**
+     * @return Highest value counted by a bucket
+     */
+    protected long getHighestValue(int index) {
+        if (index < (1 << significantBits)) {
+            return index;
+        }
+        int shift = (index >>> (significantBits - 1)) - 1;
+        return getLowestValue(index) + ((1L << shift) - 1);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(getSnapshot().size(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        currentCounts.incrementAndGet(getBucketIndex(Math.min(Math.max(value, 0), highestTrackableValue)));
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        AtomicLongArray previous;
+        AtomicLongArray current;
+        synchronized (this) {
+            long now = clock.getTick();
+            if (now - intervalStart >= intervalNanos) {
+                // Recycle the oldest counts for the new interval; An update that read the counts before they became the previous interval
+                // still lands in an interval that is part of the snapshot
+                AtomicLongArray recycled = previousCounts;
+                clear(recycled);
+                previousCounts = currentCounts;
+                currentCounts = recycled;
+                if (now - intervalStart >= 2 * intervalNanos) {
+                    // Nothing was recorded during the previous interval that is still part of the window
+                    clear(previousCounts);
+                }
+                intervalStart = now;
+            }
+            previous = previousCounts;
+            current = currentCounts;
+        }
+        int buckets = 0;
+        for (int i = 0; i < current.length(); i++) {
+            if (previous.get(i) + current.get(i) != 0) {
+                buckets++;
+            }
+        }
+        long[] values = new long[buckets];
+        long[] valueCounts = new long[buckets];
+        int bucket = 0;
+        for (int i = 0; i < current.length() && bucket < buckets; i++) {
+            long count = previous.get(i) + current.get(i);
+            if (count != 0) {
+                values[bucket] = bucket == 0 ? getLowestValue(i) : getHighestValue(i);
+                valueCounts[bucket] = count;
+                bucket++;
+            }
+        }
+        return new BucketSnapshot(values, valueCounts);
+    }
+
+    private static void clear(AtomicLongArray counts) {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Snapshot of bucket counts; Each bucket is represented by the highest value it counts, except for the lowest bucket, which is
+     * represented by its lowest value so that {@link #getMin()} is not overestimated
+     */
+    protected static class BucketSnapshot extends Snapshot {
+        private final long[] values;
+
+        private final long[] counts;
+
+        private final long size;
+
+        protected BucketSnapshot(long[] values, long[] counts) {
+            this.values = values;
+            this.counts = counts;
+            long size = 0;
+            for (long count : counts) {
+                size += count;
+            }
+            this.size = size;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            checkArgument(quantile >= 0 && quantile <= 1 && !Double.isNaN(quantile), "%s is not in [0..1]", quantile);
+            if (size == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * size));
+            long seen = 0;
+            for (int i = 0; i < values.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return values[i];
+                }
+            }
+            return values[values.length - 1];
+        }
+
+        @Override
+        public long[] getValues() {
+            long[] expanded = new long[Math.toIntExact(size)];
+            int position = 0;
+            for (int i = 0; i < values.length; i++) {
+                for (long j = 0; j < counts[i]; j++) {
+                    expanded[position++] = values[i];
+                }
+            }
+            return expanded;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(size, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return values.length == 0 ? 0 : values[values.length - 1];
+        }
+
+        @Override
+        public double getMean() {
+            if (size == 0) {
+                return 0;
+            }
+            double sum = 0;
+            for (int i = 0; i < values.length; i++) {
+                sum += (double) values[i] * counts[i];
+            }
+            return sum / size;
+        }
+
+        @Override
+        public long getMin() {
+            return values.length == 0 ? 0 : values[0];
+        }
+
+        @Override
+        public double getStdDev() {
+            if (size <= 1) {
+                return 0;
+            }
+            double mean = getMean();
+            double sum = 0;
+            for (int i = 0; i < values.length; i++) {
+                double diff = values[i] - mean;
+                sum += diff * diff * counts[i];
+            }
+            return Math.sqrt(sum / (size - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (int i = 0; i < values.length; i++) {
+                    for (long j = 0; j < counts[i]; j++) {
+                        out.printf("%d%n", values[i]);
+                    }
+                }
+            }
+        }
+    }
+}
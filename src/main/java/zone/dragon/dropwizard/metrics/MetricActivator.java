@@ -31,7 +31,9 @@ import jakarta.inject.Inject;
 
 import org.glassfish.hk2.api.ServiceLocator;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.reflect.TypeToken;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -39,7 +41,9 @@ import zone.dragon.dropwizard.ComponentActivator;
 
 /**
  * Activates all {@link InjectableMetricSet} and {@link InjectableMetric} Jersey components and registers them with DropWizard's
- * {@link MetricRegistry}
+ * {@link MetricRegistry}; With {@link #LAZY_ACTIVATION lazy activation}, named {@link Gauge gauges} are only created when they are first
+ * read. Gauges that extend a more specific type of gauge, such as {@link com.codahale.metrics.SettableGauge SettableGauge}, are always
+ * created eagerly, since the stand-in could only be a plain gauge.
  *
  * @author Bryan Harclerode
  */
@@ -53,6 +57,18 @@ public class MetricActivator extends ComponentActivator {
         this.registry = registry;
     }
 
+    /**
+     * Checks whether a class is a gauge without any more specific gauge type, so that a plain {@link Gauge} can stand in for it
+     */
+    private static boolean isPlainGauge(Class<?> implementation) {
+        return Gauge.class.isAssignableFrom(implementation) && TypeToken
+            .of(implementation)
+            .getTypes()
+            .rawTypes()
+            .stream()
+            .allMatch(type -> type == implementation || type == Gauge.class || !Gauge.class.isAssignableFrom(type));
+    }
+
     @Override
     protected void activateComponents() {
         activate(InjectableMetric.class, (name, component) -> {
@@ -62,6 +78,14 @@ public class MetricActivator extends ComponentActivator {
             }
             log.info("Registering metric {}", name);
             registry.register(name, component);
+        }, (name, implementation, component) -> {
+            // Counters, meters, timers, histograms and gauge subtypes are used through their own types, so only plain gauges are deferred
+            if (name == null || !isPlainGauge(implementation)) {
+                return false;
+            }
+            log.info("Registering lazy gauge {}", name);
+            registry.register(name, (Gauge<Object>) () -> ((Gauge<?>) component.get()).getValue());
+            return true;
         });
         activate(InjectableMetricSet.class, (name, component) -> registry.registerAll(component));
     }
@@ -0,0 +1,300 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.lang.reflect.Executable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.jvnet.hk2.annotations.Optional;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
+
+import lombok.NonNull;
+import lombok.Value;
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+
+/**
+ * Caches the metrics used by intercepted methods and constructors so that names only need to be formatted and looked up in the
+ * {@link MetricRegistry} the first time a given executable is invoked with a given set of tags. Handles are evicted whenever the metric
+ * they point to is removed from the registry, and are transparently re-resolved the next time they are used. Handles returned by
+ * {@link #bind} stay cached after they are evicted, since interceptors keep using them and every later lookup must share the same handle;
+ * There is only one of those per executable and metric type. Evicted request-scoped handles are looked up again on every call, so they are
+ * dropped from the cache, and it never holds more of them than there are metrics in the registry.
+ * <p>
+ * When a {@link DimensionalMetricRegistry} is bound, metrics are created through it so that they can also be looked up by
+ * {@link MetricName}.
+ */
+@Singleton
+public class MetricHandleCache {
+    /**
+     * Creates or retrieves a metric of a particular type from a registry, such as {@link MetricRegistry#timer(String)}
+     *
+     * @param <T>
+     *     Type of metric
+     */
+    @FunctionalInterface
+    public interface MetricSupplier<T extends Metric> {
+        T get(MetricRegistry registry, String name);
+    }
+
+    private final ConcurrentMap<HandleKey, MetricHandle<?>> handles = new ConcurrentHashMap<>();
+
+    /**
+     * Handles indexed by the name of the metric they resolved to, so that removing a metric only visits the handles pointing at it
+     */
+    private final ConcurrentMap<String, Set<MetricHandle<?>>> handlesByName = new ConcurrentHashMap<>();
+
+    private final EvictionListener evictionListener = new EvictionListener();
+
+    private final MetricRegistry metricRegistry;
+
+    private final MetricNameService metricNameService;
+
+    private final DimensionalMetricRegistry dimensionalMetricRegistry;
+
+    public MetricHandleCache(@NonNull MetricRegistry metricRegistry, @NonNull MetricNameService metricNameService) {
+        this(metricRegistry, metricNameService, null);
+    }
+
+    @Inject
+    public MetricHandleCache(
+        @NonNull MetricRegistry metricRegistry,
+        @NonNull MetricNameService metricNameService,
+        @Optional DimensionalMetricRegistry dimensionalMetricRegistry
+    ) {
+        this.metricRegistry = metricRegistry;
+        this.metricNameService = metricNameService;
+        this.dimensionalMetricRegistry = dimensionalMetricRegistry;
+        metricRegistry.addListener(evictionListener);
+    }
+
+    /**
+     * Returns a supplier for the metric used by {@code executable}. If the name of the metric can't change between requests, the metric is
+     * resolved immediately and the supplier only needs to read it; Otherwise, the returned supplier looks the handle up for the current
+     * context every time it is called.
+     *
+     * @param executable
+     *     Method or constructor being intercepted
+     * @param metricType
+     *     Type of metric being used
+     * @param supplier
+     *     Creates the metric in the registry if it does not already exist
+     * @param <T>
+     *     Type of metric being used
+     *
+     * @return Supplier that returns the metric for the current context
+     */
+    public <T extends Metric> Supplier<T> bind(
+        @NonNull Executable executable, @NonNull Class<T> metricType, @NonNull MetricSupplier<T> supplier
+    ) {
+        if (metricNameService.isRequestScoped(executable, metricType)) {
+            return () -> getMetric(executable, metricType, supplier);
+        }
+        MetricHandle<T> handle = getHandle(executable, metricType, supplier);
+        handle.get();
+        return handle;
+    }
+
+    /**
+     * Returns the metric used by {@code executable} in the current context, creating it if necessary
+     *
+     * @param executable
+     *     Method or constructor being intercepted
+     * @param metricType
+     *     Type of metric being used
+     * @param supplier
+     *     Creates the metric in the registry if it does not already exist
+     * @param <T>
+     *     Type of metric being used
+     *
+     * @return Metric for the current context
+     */
+    public <T extends Metric> T getMetric(
+        @NonNull Executable executable, @NonNull Class<T> metricType, @NonNull MetricSupplier<T> supplier
+    ) {
+        return getHandle(executable, metricType, supplier).get();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T extends Metric> MetricHandle<T> getHandle(Executable executable, Class<T> metricType, MetricSupplier<T> supplier) {
+        MetricName tags = null;
+        if (metricNameService.isRequestScoped(executable, metricType)) {
+            tags = metricNameService.getMetricName(executable, metricType);
+        }
+        HandleKey key = HandleKey.of(executable, metricType, tags);
+        MetricHandle<?> handle = handles.get(key);
+        if (handle == null) {
+            handle = handles.computeIfAbsent(key, k -> new MetricHandle<>(k, executable, metricType, supplier));
+        }
+        return (MetricHandle<T>) handle;
+    }
+
+    @PreDestroy
+    public void close() {
+        metricRegistry.removeListener(evictionListener);
+        handles.clear();
+        handlesByName.clear();
+    }
+
+    protected void evict(String name) {
+        Set<MetricHandle<?>> evicted = handlesByName.remove(name);
+        if (evicted == null) {
+            return;
+        }
+        for (MetricHandle<?> handle : evicted) {
+            handle.evict(name);
+            // Handles without tags may have been bound by an interceptor, which will re-resolve them on the next call
+            if (handle.key.getTags() != null) {
+                handles.remove(handle.key, handle);
+            }
+        }
+    }
+
+    /**
+     * Number of handles currently cached
+     */
+    protected int size() {
+        return handles.size();
+    }
+
+    private void index(String name, MetricHandle<?> handle) {
+        handlesByName.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet()).add(handle);
+    }
+
+    /**
+     * Points at a single metric in the registry; The metric is resolved lazily and re-resolved after it has been removed from the registry
+     *
+     * @param <T>
+     *     Type of metric
+     */
+    protected class MetricHandle<T extends Metric> implements Supplier<T> {
+        private final HandleKey key;
+
+        private final Executable executable;
+
+        private final Class<T> metricType;
+
+        private final MetricSupplier<T> supplier;
+
+        private volatile T metric;
+
+        private String name;
+
+        protected MetricHandle(HandleKey key, Executable executable, Class<T> metricType, MetricSupplier<T> supplier) {
+            this.key = key;
+            this.executable = executable;
+            this.metricType = metricType;
+            this.supplier = supplier;
+        }
+
+        @Override
+        public T get() {
+            T current = metric;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (metric != null) {
+                    return metric;
+                }
+                // The name is resolved in the same context that was used to look up this handle, so it produces the same tags
+                if (dimensionalMetricRegistry == null) {
+                    name = metricNameService.getFormattedMetricName(executable, metricType);
+                    // Indexed before the metric is created so that a concurrent removal waits on this handle and then evicts it
+                    index(name, this);
+                    return metric = supplier.get(metricRegistry, name);
+                }
+                MetricName metricName = metricNameService.getMetricName(executable, metricType);
+                T resolved = dimensionalMetricRegistry.getOrAdd(metricName, metricType, supplier);
+                name = dimensionalMetricRegistry.getFlatName(metricName);
+                if (name != null) {
+                    index(name, this);
+                    // Removals before the handle was indexed weren't seen by evict(), so make sure the metric is still registered
+                    if (metricRegistry.getMetrics().get(name) == resolved) {
+                        metric = resolved;
+                    } else {
+                        name = null;
+                    }
+                }
+                // Otherwise it was removed as soon as it was created, and is resolved again on the next call
+                return resolved;
+            }
+        }
+
+        protected synchronized void evict(String removedName) {
+            if (removedName.equals(name)) {
+                metric = null;
+                name = null;
+            }
+        }
+    }
+
+    @Value(staticConstructor = "of")
+    protected static class HandleKey {
+        Executable executable;
+
+        Class<?> metricType;
+
+        MetricName tags;
+    }
+
+    private class EvictionListener extends MetricRegistryListener.Base {
+        @Override
+        public void onGaugeRemoved(String name) {
+            evict(name);
+        }
+
+        @Override
+        public void onCounterRemoved(String name) {
+            evict(name);
+        }
+
+        @Override
+        public void onHistogramRemoved(String name) {
+            evict(name);
+        }
+
+        @Override
+        public void onMeterRemoved(String name) {
+            evict(name);
+        }
+
+        @Override
+        public void onTimerRemoved(String name) {
+            evict(name);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.lang.reflect.AnnotatedElement;
+
+import jakarta.inject.Singleton;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import lombok.Getter;
+import lombok.NonNull;
+import zone.dragon.dropwizard.metrics.MetricHandleCache.MetricSupplier;
+
+/**
+ * Chooses the reservoir used by the {@link Timer timers} and {@link Histogram histograms} created for injection sites and intercepted
+ * methods; A {@link MetricReservoir @MetricReservoir} annotation on the site takes precedence over the {@link #getDefaultType() default
+ * type}. The choice is made when a site's metric is first created, so the default type should be set before the application starts.
+ */
+@Singleton
+public class ReservoirFactory {
+    /**
+     * Reservoir type used for sites that do not select one; {@link ReservoirType#DEFAULT} uses the registry's own reservoir
+     */
+    @Getter
+    private volatile ReservoirType defaultType = ReservoirType.DEFAULT;
+
+    public void setDefaultType(@NonNull ReservoirType defaultType) {
+        this.defaultType = defaultType;
+    }
+
+    /**
+     * Determines the reservoir type for a site
+     *
+     * @param site
+     *     Parameter/field being injected or method/constructor being intercepted, or {@code null} if there is no site
+     *
+     * @return Reservoir type to use, which is {@link ReservoirType#DEFAULT} if the registry's own reservoir should be used
+     */
+    public ReservoirType getReservoirType(AnnotatedElement site) {
+        MetricReservoir annotation = site == null ? null : site.getAnnotation(MetricReservoir.class);
+        if (annotation != null && annotation.value() != ReservoirType.DEFAULT) {
+            return annotation.value();
+        }
+        return defaultType;
+    }
+
+    /**
+     * Returns a supplier that creates timers with the reservoir selected for a site
+     *
+     * @param site
+     *     Parameter/field being injected or method/constructor being intercepted, or {@code null} if there is no site
+     *
+     * @return Supplier for the site's timer
+     */
+    public MetricSupplier<Timer> timerSupplier(AnnotatedElement site) {
+        ReservoirType type = getReservoirType(site);
+        if (type == ReservoirType.DEFAULT) {
+            return MetricRegistry::timer;
+        }
+        return (registry, name) -> registry.timer(name, () -> new Timer(type.createReservoir()));
+    }
+
+    /**
+     * Returns a supplier that creates histograms with the reservoir selected for a site
+     *
+     * @param site
+     *     Parameter/field being injected or method/constructor being intercepted, or {@code null} if there is no site
+     *
+     * @return Supplier for the site's histogram
+     */
+    public MetricSupplier<Histogram> histogramSupplier(AnnotatedElement site) {
+        ReservoirType type = getReservoirType(site);
+        if (type == ReservoirType.DEFAULT) {
+            return MetricRegistry::histogram;
+        }
+        return (registry, name) -> registry.histogram(name, () -> new Histogram(type.createReservoir()));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Reservoirs that can back the {@link com.codahale.metrics.Timer timers} and {@link com.codahale.metrics.Histogram histograms} created
+ * for injection sites and intercepted methods
+ *
+ * @see MetricReservoir
+ * @see ReservoirFactory
+ */
+public enum ReservoirType {
+    /**
+     * Use the {@link ReservoirFactory#getDefaultType() default type}, or the registry's own reservoir if no default is configured
+     */
+    DEFAULT(null),
+    /**
+     * {@link ExponentiallyDecayingReservoir}, which is the reservoir used by the registry unless it has been customized; Updates are
+     * serialized by a lock
+     */
+    EXPONENTIALLY_DECAYING(ExponentiallyDecayingReservoir::new),
+    /**
+     * {@link LockFreeExponentiallyDecayingReservoir}, which gives the same results as {@link #EXPONENTIALLY_DECAYING} without taking a
+     * lock on update
+     */
+    LOCK_FREE_EXPONENTIALLY_DECAYING(() -> LockFreeExponentiallyDecayingReservoir.builder().build()),
+    /**
+     * {@link SlidingTimeWindowArrayReservoir} over the last minute
+     */
+    SLIDING_TIME_WINDOW(() -> new SlidingTimeWindowArrayReservoir(1, TimeUnit.MINUTES)),
+    /**
+     * {@link LogLinearReservoir}, which counts every value in HDR-style buckets for accurate tail percentiles over one minute intervals
+     */
+    LOG_LINEAR(LogLinearReservoir::new);
+
+    private final Supplier<Reservoir> reservoirSupplier;
+
+    ReservoirType(Supplier<Reservoir> reservoirSupplier) {
+        this.reservoirSupplier = reservoirSupplier;
+    }
+
+    /**
+     * Creates a new reservoir of this type
+     *
+     * @return New reservoir
+     *
+     * @throws IllegalStateException
+     *     if this is {@link #DEFAULT}, which must be resolved by the {@link ReservoirFactory}
+     */
+    public Reservoir createReservoir() {
+        checkState(reservoirSupplier != null, "%s must be resolved to a concrete reservoir type", this);
+        return reservoirSupplier.get();
+    }
+}
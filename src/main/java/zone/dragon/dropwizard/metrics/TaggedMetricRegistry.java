@@ -26,6 +26,15 @@
 package zone.dragon.dropwizard.metrics;
 
 import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
@@ -33,23 +42,64 @@ import jakarta.inject.Provider;
 import org.jvnet.hk2.annotations.Optional;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Counting;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.MetricSet;
 import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.experimental.Delegate;
+import lombok.extern.slf4j.Slf4j;
+import zone.dragon.dropwizard.lifecycle.InjectableManaged;
+import zone.dragon.dropwizard.metrics.naming.DefaultMetricNameFormatter;
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameFormatter;
 import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Metric registry that supports contextual tagging of metrics. This wraps an existing {@link MetricRegistry} and adds tags to the names of
  * metrics as they are created by leveraging the {@link MetricNameService} to extract contextual tag information at the time the metric is
  * created. If no metric name service is available, no tags are added.
+ * <p>
+ * The number of tag combinations created through {@link #counter(String)}, {@link #histogram(String)}, {@link #meter(String)}, and
+ * {@link #timer(String)} can be limited per base metric name with {@link #setMaxTagCombinations(int)}. Once the limit is reached, new
+ * combinations have all of their tag values replaced with {@value #OVERFLOW_TAG_VALUE} and the {@value #OVERFLOW_COUNTER_SUFFIX} counter
+ * for the base name is incremented.
+ * <p>
+ * Tagged metrics created on demand can also be removed once they have been idle for longer than {@link #setIdleExpiry(Duration)}. A
+ * metric is idle when it has not been looked up through this registry and its count has not changed; While the registry is started, a
+ * background sweeper checks for idle metrics and removes them from the underlying registry.
  */
-public class TaggedMetricRegistry extends MetricRegistry {
+@Slf4j
+public class TaggedMetricRegistry extends MetricRegistry implements InjectableManaged {
+    /**
+     * Minimum time between two sweeps for idle metrics
+     */
+    private static final long MIN_SWEEP_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Value of {@link #getMaxTagCombinations()} when the number of tag combinations is not limited
+     */
+    public static final int UNLIMITED_TAG_COMBINATIONS = Integer.MAX_VALUE;
+
+    /**
+     * Tag value used for all tags of a metric created after its base name has reached the tag combination limit
+     */
+    public static final String OVERFLOW_TAG_VALUE = "other";
+
+    /**
+     * Suffix appended to a base name to name the counter of tag combinations that were folded into {@value #OVERFLOW_TAG_VALUE}
+     */
+    public static final String OVERFLOW_COUNTER_SUFFIX = "tagOverflow";
+
     // Marker used to exclude the methods we want to override from @Delegate
     private interface ExcludedMethods {
         Counter counter(String name);
@@ -72,16 +122,159 @@ public class TaggedMetricRegistry extends MetricRegistry {
 
     private final Provider<MetricNameService> metricNameServiceProvider;
 
+    /**
+     * Formats every name this registry creates, whether or not its tags were folded, so that both kinds of names look the same
+     */
+    private final MetricNameFormatter formatter;
+
+    private final ConcurrentMap<String, TagCombinations> tagCombinations = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of tag combinations created for each base metric name
+     */
+    @Getter
+    private volatile int maxTagCombinations = UNLIMITED_TAG_COMBINATIONS;
+
+    private final ConcurrentMap<String, IdleTracker> idleTrackers = new ConcurrentHashMap<>();
+
+    /**
+     * Time after which tagged metrics that have not been used are removed, or {@code null} if tagged metrics never expire
+     */
+    @Getter
+    private volatile Duration idleExpiry;
+
+    /**
+     * Coarse clock, in milliseconds, used to stamp metrics when they are looked up; This is advanced by the sweeper so that looking up a
+     * metric never has to read the system clock.
+     */
+    private volatile long clock = System.currentTimeMillis();
+
+    private boolean started;
+
+    private ScheduledExecutorService sweeper;
+
     public TaggedMetricRegistry(@NonNull MetricRegistry registry, @NonNull MetricNameService metricNameService) {
-        this(registry, () -> metricNameService);
+        this(registry, () -> metricNameService, null);
     }
 
     @Inject
     public TaggedMetricRegistry(
-        @NonNull MetricRegistry registry, @NonNull @Optional Provider<MetricNameService> metricNameServiceProvider
+        @NonNull MetricRegistry registry,
+        @NonNull @Optional Provider<MetricNameService> metricNameServiceProvider,
+        @Optional MetricNameFormatter formatter
     ) {
         this.delegate = registry;
         this.metricNameServiceProvider = metricNameServiceProvider;
+        this.formatter = formatter == null ? new DefaultMetricNameFormatter() : formatter;
+    }
+
+    /**
+     * Limits the number of tag combinations created for each base metric name by {@link #counter(String)}, {@link #histogram(String)},
+     * {@link #meter(String)}, and {@link #timer(String)}; Combinations past the limit are folded into a single combination with every tag
+     * set to {@value #OVERFLOW_TAG_VALUE}. Combinations that were already created before the limit was lowered remain in use.
+     *
+     * @param maxTagCombinations
+     *     Maximum number of tag combinations per base name, or {@link #UNLIMITED_TAG_COMBINATIONS}
+     */
+    public void setMaxTagCombinations(int maxTagCombinations) {
+        checkArgument(maxTagCombinations > 0, "maxTagCombinations must be positive");
+        this.maxTagCombinations = maxTagCombinations;
+    }
+
+    /**
+     * Removes tagged metrics created by {@link #counter(String)}, {@link #histogram(String)}, {@link #meter(String)}, and
+     * {@link #timer(String)} once they have not been looked up or updated for {@code idleExpiry}; Metrics that do not have tags and
+     * metrics added with {@link #register(String, Metric)} never expire. Only metrics created after expiry is enabled are tracked.
+     *
+     * @param idleExpiry
+     *     Time after which idle metrics are removed, or {@code null} to disable expiry
+     */
+    public synchronized void setIdleExpiry(Duration idleExpiry) {
+        checkArgument(idleExpiry == null || (!idleExpiry.isNegative() && !idleExpiry.isZero()), "idleExpiry must be positive");
+        this.idleExpiry = idleExpiry;
+        if (idleExpiry == null) {
+            idleTrackers.clear();
+        }
+        if (started) {
+            stopSweeper();
+            startSweeper();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            startSweeper();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        started = false;
+        stopSweeper();
+    }
+
+    private void startSweeper() {
+        Duration expiry = idleExpiry;
+        if (expiry == null) {
+            return;
+        }
+        long interval = Math.max(expiry.toMillis() / 4, MIN_SWEEP_INTERVAL_MILLIS);
+        sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("tagged-metric-sweeper-%d")
+            .setDaemon(true)
+            .build());
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    private void sweep() {
+        try {
+            removeIdleMetrics();
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove idle metrics", e);
+        }
+    }
+
+    /**
+     * Removes tagged metrics that have been idle for longer than {@link #getIdleExpiry()}; This is called periodically while the registry
+     * is started. A metric that is in use concurrently with its removal keeps working, but is no longer reported until it is looked up
+     * again.
+     */
+    protected void removeIdleMetrics() {
+        Duration expiry = idleExpiry;
+        if (expiry == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        clock = now;
+        long expiryMillis = expiry.toMillis();
+        Map<String, Metric> metrics = delegate.getMetrics();
+        idleTrackers.forEach((name, tracker) -> {
+            Metric metric = metrics.get(name);
+            if (metric == null) {
+                // Removed by someone else
+                if (idleTrackers.remove(name, tracker)) {
+                    releaseTags(tracker.getMetricName());
+                }
+                return;
+            }
+            long count = metric instanceof Counting ? ((Counting) metric).getCount() : tracker.getLastCount();
+            if (count != tracker.getLastCount()) {
+                tracker.setLastCount(count);
+                tracker.touch(now);
+            } else if (now - tracker.getLastTouched() >= expiryMillis && idleTrackers.remove(name, tracker)) {
+                delegate.remove(name);
+                releaseTags(tracker.getMetricName());
+            }
+        });
     }
 
     protected String getTaggedName(String baseName, Type type) {
@@ -89,7 +282,70 @@ public class TaggedMetricRegistry extends MetricRegistry {
         if (metricNameService == null) {
             return baseName;
         }
-        return metricNameService.getFormattedMetricName(null, type, baseName);
+        return formatter.formatName(metricNameService.getMetricName(null, type, baseName));
+    }
+
+    /**
+     * Builds the tagged name for a metric that is created on demand, folding its tags if its base name has reached the tag combination
+     * limit and recording its use if idle metrics expire
+     *
+     * @param baseName
+     *     Name requested by the caller
+     * @param type
+     *     Type of metric being created
+     *
+     * @return Formatted name of the metric
+     */
+    protected String getLimitedName(String baseName, Type type) {
+        MetricNameService metricNameService = this.metricNameServiceProvider.get();
+        if (metricNameService == null) {
+            return baseName;
+        }
+        if (maxTagCombinations == UNLIMITED_TAG_COMBINATIONS && idleExpiry == null) {
+            return formatter.formatName(metricNameService.getMetricName(null, type, baseName));
+        }
+        MetricName metricName = limitTags(metricNameService.getMetricName(null, type, baseName));
+        String formattedName = formatter.formatName(metricName);
+        if (idleExpiry != null && metricName.getTagCount() > 0) {
+            IdleTracker tracker = idleTrackers.get(formattedName);
+            if (tracker == null) {
+                tracker = idleTrackers.computeIfAbsent(formattedName, key -> new IdleTracker(metricName, clock));
+            }
+            tracker.touch(clock);
+        }
+        return formattedName;
+    }
+
+    private void releaseTags(MetricName metricName) {
+        TagCombinations combinations = metricName.getName() == null ? null : tagCombinations.get(metricName.getName());
+        if (combinations != null) {
+            combinations.remove(metricName);
+        }
+    }
+
+    /**
+     * Returns the metric name to use in place of {@code metricName}, which is either {@code metricName} itself or, if its base name has
+     * already reached the tag combination limit, the same name with all tag values replaced by {@value #OVERFLOW_TAG_VALUE}
+     *
+     * @param metricName
+     *     Tagged name of the metric
+     *
+     * @return Name to create the metric with
+     */
+    protected MetricName limitTags(MetricName metricName) {
+        if (metricName.getTagCount() == 0 || metricName.getName() == null) {
+            return metricName;
+        }
+        TagCombinations combinations = tagCombinations.computeIfAbsent(metricName.getName(), TagCombinations::new);
+        if (combinations.tryAdd(metricName, maxTagCombinations)) {
+            return metricName;
+        }
+        combinations.getOverflow().inc();
+        MetricName folded = metricName;
+        for (int i = 0; i < metricName.getTagCount(); i++) {
+            folded = folded.withTag(metricName.getTagKey(i), OVERFLOW_TAG_VALUE);
+        }
+        return folded;
     }
 
     @Override
@@ -126,7 +382,7 @@ public class TaggedMetricRegistry extends MetricRegistry {
      */
     @Override
     public Counter counter(String name) {
-        return delegate.counter(getTaggedName(name, Counter.class));
+        return delegate.counter(getLimitedName(name, Counter.class));
     }
 
     /**
@@ -139,7 +395,7 @@ public class TaggedMetricRegistry extends MetricRegistry {
      */
     @Override
     public Histogram histogram(String name) {
-        return delegate.histogram(getTaggedName(name, Histogram.class));
+        return delegate.histogram(getLimitedName(name, Histogram.class));
     }
 
     /**
@@ -152,7 +408,7 @@ public class TaggedMetricRegistry extends MetricRegistry {
      */
     @Override
     public Meter meter(String name) {
-        return delegate.meter(getTaggedName(name, Meter.class));
+        return delegate.meter(getLimitedName(name, Meter.class));
     }
 
     /**
@@ -165,11 +421,92 @@ public class TaggedMetricRegistry extends MetricRegistry {
      */
     @Override
     public Timer timer(String name) {
-        return delegate.timer(getTaggedName(name, Timer.class));
+        return delegate.timer(getLimitedName(name, Timer.class));
     }
 
     @Override
     public void registerAll(String prefix, MetricSet metricSet) {
         metricSet.getMetrics().forEach((key, value) -> register(name(prefix, key), value));
     }
+
+    /**
+     * Tag combinations that have been created for a single base name
+     */
+    private class TagCombinations {
+        private final String baseName;
+
+        private final Set<MetricName> names = ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private volatile Counter overflow;
+
+        private TagCombinations(String baseName) {
+            this.baseName = baseName;
+        }
+
+        /**
+         * Records a tag combination unless doing so would exceed {@code limit}
+         *
+         * @return {@code true} if the combination has been recorded, or {@code false} if the limit has been reached
+         */
+        private boolean tryAdd(MetricName name, int limit) {
+            if (names.contains(name)) {
+                return true;
+            }
+            // Reserve a slot before publishing the name so that racing callers can never exceed the limit
+            if (size.incrementAndGet() > limit) {
+                size.decrementAndGet();
+                // Another caller may have published the same name while we were checking the limit
+                return names.contains(name);
+            }
+            if (!names.add(name)) {
+                size.decrementAndGet();
+            }
+            return true;
+        }
+
+        private void remove(MetricName name) {
+            if (names.remove(name)) {
+                size.decrementAndGet();
+            }
+        }
+
+        private Counter getOverflow() {
+            Counter counter = overflow;
+            if (counter == null) {
+                counter = delegate.counter(formatter.formatName(MetricName.of(name(baseName, OVERFLOW_COUNTER_SUFFIX))));
+                overflow = counter;
+            }
+            return counter;
+        }
+    }
+
+    /**
+     * Tracks when a tagged metric was last used
+     */
+    @Getter
+    private static class IdleTracker {
+        private final MetricName metricName;
+
+        private volatile long lastTouched;
+
+        /**
+         * Count of the metric when it was last swept; Only accessed by the sweeper
+         */
+        @Setter
+        private long lastCount;
+
+        private IdleTracker(MetricName metricName, long now) {
+            this.metricName = metricName;
+            this.lastTouched = now;
+        }
+
+        private void touch(long now) {
+            // Skip the volatile write when the coarse clock has not advanced
+            if (lastTouched != now) {
+                lastTouched = now;
+            }
+        }
+    }
 }
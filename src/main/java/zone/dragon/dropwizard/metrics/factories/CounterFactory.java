@@ -29,10 +29,12 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 import org.glassfish.hk2.api.InstantiationService;
+import org.jvnet.hk2.annotations.Optional;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.MetricRegistry;
 
+import zone.dragon.dropwizard.metrics.DimensionalMetricRegistry;
 import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 
 /**
@@ -44,7 +46,12 @@ import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 @Singleton
 public class CounterFactory extends MetricFactory<Counter> {
     @Inject
-    public CounterFactory(InstantiationService instantiationService, MetricNameService nameService, MetricRegistry metricRegistry) {
-        super(instantiationService, nameService, metricRegistry::counter);
+    public CounterFactory(
+        InstantiationService instantiationService,
+        MetricNameService nameService,
+        MetricRegistry metricRegistry,
+        @Optional DimensionalMetricRegistry dimensionalMetricRegistry
+    ) {
+        super(instantiationService, nameService, metricRegistry::counter, dimensionalMetricRegistry);
     }
 }
@@ -25,26 +25,51 @@
 
 package zone.dragon.dropwizard.metrics.factories;
 
+import java.lang.reflect.AnnotatedElement;
+
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 import org.glassfish.hk2.api.InstantiationService;
+import org.jvnet.hk2.annotations.Optional;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 
+import lombok.NonNull;
+import zone.dragon.dropwizard.metrics.DimensionalMetricRegistry;
+import zone.dragon.dropwizard.metrics.MetricReservoir;
+import zone.dragon.dropwizard.metrics.ReservoirFactory;
 import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 
 /**
- * Factory that injects tagged {@link Histogram histograms}
+ * Factory that injects tagged {@link Histogram histograms}; The reservoir backing each histogram is chosen by the
+ * {@link ReservoirFactory}, and can be selected per injection site with {@link MetricReservoir @MetricReservoir}
  *
  * @see MetricRegistry
  * @see MetricNameService
  */
 @Singleton
 public class HistogramFactory extends MetricFactory<Histogram> {
+    private final MetricRegistry metricRegistry;
+
+    private final ReservoirFactory reservoirFactory;
+
     @Inject
-    public HistogramFactory(InstantiationService instantiationService, MetricNameService nameService, MetricRegistry metricRegistry) {
-        super(instantiationService, nameService, metricRegistry::histogram);
+    public HistogramFactory(
+        InstantiationService instantiationService,
+        MetricNameService nameService,
+        @NonNull MetricRegistry metricRegistry,
+        @NonNull ReservoirFactory reservoirFactory,
+        @Optional DimensionalMetricRegistry dimensionalMetricRegistry
+    ) {
+        super(instantiationService, nameService, dimensionalMetricRegistry);
+        this.metricRegistry = metricRegistry;
+        this.reservoirFactory = reservoirFactory;
+    }
+
+    @Override
+    protected Histogram createMetric(AnnotatedElement injectionSite, String name) {
+        return reservoirFactory.histogramSupplier(injectionSite).get(metricRegistry, name);
     }
 }
@@ -29,10 +29,12 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 import org.glassfish.hk2.api.InstantiationService;
+import org.jvnet.hk2.annotations.Optional;
 
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 
+import zone.dragon.dropwizard.metrics.DimensionalMetricRegistry;
 import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 
 /**
@@ -44,7 +46,12 @@ import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 @Singleton
 public class MeterFactory extends MetricFactory<Meter> {
     @Inject
-    public MeterFactory(InstantiationService instantiationService, MetricNameService nameService, MetricRegistry metricRegistry) {
-        super(instantiationService, nameService, metricRegistry::meter);
+    public MeterFactory(
+        InstantiationService instantiationService,
+        MetricNameService nameService,
+        MetricRegistry metricRegistry,
+        @Optional DimensionalMetricRegistry dimensionalMetricRegistry
+    ) {
+        super(instantiationService, nameService, metricRegistry::meter, dimensionalMetricRegistry);
     }
 }
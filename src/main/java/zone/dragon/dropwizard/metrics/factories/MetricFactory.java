@@ -40,15 +40,18 @@ import org.glassfish.hk2.api.Injectee;
 import org.glassfish.hk2.api.InstantiationService;
 import org.glassfish.hk2.api.PerLookup;
 import org.glassfish.hk2.api.Visibility;
+import org.jvnet.hk2.annotations.Optional;
 
 import com.codahale.metrics.Metric;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import zone.dragon.dropwizard.metrics.DimensionalMetricRegistry;
 import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 
 /**
- * Factory that handles injecting metrics named based on the injection site
+ * Factory that handles injecting metrics named based on the injection site; When a {@link DimensionalMetricRegistry} is bound, metrics are
+ * created through it so that they can also be looked up by {@link MetricName}.
  */
 @Singleton
 @Slf4j
@@ -59,37 +62,90 @@ public class MetricFactory<T extends Metric> implements Factory<T> {
 
     private final Function<String, T> metricSupplier;
 
-    @Inject
+    private final DimensionalMetricRegistry dimensionalMetricRegistry;
+
     public MetricFactory(
         @NonNull InstantiationService instantiationService,
         @NonNull MetricNameService metricNameService,
         @NonNull Function<String, T> metricSupplier
+    ) {
+        this(instantiationService, metricNameService, metricSupplier, null);
+    }
+
+    @Inject
+    public MetricFactory(
+        @NonNull InstantiationService instantiationService,
+        @NonNull MetricNameService metricNameService,
+        @NonNull Function<String, T> metricSupplier,
+        @Optional DimensionalMetricRegistry dimensionalMetricRegistry
     ) {
         this.instantiationService = instantiationService;
         this.nameService = metricNameService;
         this.metricSupplier = metricSupplier;
+        this.dimensionalMetricRegistry = dimensionalMetricRegistry;
+    }
+
+    /**
+     * Constructor for subclasses that create their metrics by overriding {@link #createMetric(AnnotatedElement, String)}
+     */
+    protected MetricFactory(
+        @NonNull InstantiationService instantiationService,
+        @NonNull MetricNameService metricNameService,
+        DimensionalMetricRegistry dimensionalMetricRegistry
+    ) {
+        this.instantiationService = instantiationService;
+        this.nameService = metricNameService;
+        this.metricSupplier = null;
+        this.dimensionalMetricRegistry = dimensionalMetricRegistry;
     }
 
     @Override
     @PerLookup
     @Visibility(DescriptorVisibility.LOCAL)
+    @SuppressWarnings("unchecked")
     public T provide() {
         Injectee injectee = instantiationService.getInstantiationData().getParentInjectee();
         String name;
+        AnnotatedElement parent = null;
         if (injectee == null) {
             log.warn("Creating metric with no injection context; Use the metric registry directly instead of dynamically creating it "
                 + "through HK2", new Exception());
             name = UUID.randomUUID().toString();
         } else {
-            AnnotatedElement parent = injectee.getParent();
+            parent = injectee.getParent();
             if (parent instanceof Constructor) {
                 parent = ((Constructor) parent).getParameters()[injectee.getPosition()];
             }
             if (parent instanceof Method) {
                 parent = ((Method) parent).getParameters()[injectee.getPosition()];
             }
+            if (dimensionalMetricRegistry != null) {
+                AnnotatedElement injectionSite = parent;
+                return dimensionalMetricRegistry.getOrAdd(
+                    nameService.getMetricName(parent, injectee.getInjecteeClass()),
+                    (Class<T>) injectee.getInjecteeClass(),
+                    (registry, flatName) -> createMetric(injectionSite, flatName)
+                );
+            }
             name = nameService.getFormattedMetricName(parent, injectee.getInjecteeClass());
         }
+        return createMetric(parent, name);
+    }
+
+    /**
+     * Creates or retrieves the metric for an injection site
+     *
+     * @param injectionSite
+     *     Parameter or field being injected, or {@code null} if there is no injection context
+     * @param name
+     *     Formatted name of the metric
+     *
+     * @return Metric to inject
+     */
+    protected T createMetric(AnnotatedElement injectionSite, String name) {
+        if (metricSupplier == null) {
+            throw new IllegalStateException(getClass().getName() + " must override createMetric when it has no metric supplier");
+        }
         return metricSupplier.apply(name);
     }
 
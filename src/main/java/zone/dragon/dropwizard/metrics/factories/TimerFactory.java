@@ -25,26 +25,51 @@
 
 package zone.dragon.dropwizard.metrics.factories;
 
+import java.lang.reflect.AnnotatedElement;
+
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 import org.glassfish.hk2.api.InstantiationService;
+import org.jvnet.hk2.annotations.Optional;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 
+import lombok.NonNull;
+import zone.dragon.dropwizard.metrics.DimensionalMetricRegistry;
+import zone.dragon.dropwizard.metrics.MetricReservoir;
+import zone.dragon.dropwizard.metrics.ReservoirFactory;
 import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 
 /**
- * Factory that injects tagged {@link Timer timers}
+ * Factory that injects tagged {@link Timer timers}; The reservoir backing each timer is chosen by the {@link ReservoirFactory}, and can be
+ * selected per injection site with {@link MetricReservoir @MetricReservoir}
  *
  * @see MetricRegistry
  * @see MetricNameService
  */
 @Singleton
 public class TimerFactory extends MetricFactory<Timer> {
+    private final MetricRegistry metricRegistry;
+
+    private final ReservoirFactory reservoirFactory;
+
     @Inject
-    public TimerFactory(InstantiationService instantiationService, MetricNameService nameService, MetricRegistry metricRegistry) {
-        super(instantiationService, nameService, metricRegistry::timer);
+    public TimerFactory(
+        InstantiationService instantiationService,
+        MetricNameService nameService,
+        @NonNull MetricRegistry metricRegistry,
+        @NonNull ReservoirFactory reservoirFactory,
+        @Optional DimensionalMetricRegistry dimensionalMetricRegistry
+    ) {
+        super(instantiationService, nameService, dimensionalMetricRegistry);
+        this.metricRegistry = metricRegistry;
+        this.reservoirFactory = reservoirFactory;
+    }
+
+    @Override
+    protected Timer createMetric(AnnotatedElement injectionSite, String name) {
+        return reservoirFactory.timerSupplier(injectionSite).get(metricRegistry, name);
     }
 }
@@ -28,6 +28,7 @@ package zone.dragon.dropwizard.metrics.interceptors;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
+import java.util.function.Supplier;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -43,7 +44,7 @@ import com.codahale.metrics.annotation.Counted;
 import lombok.NonNull;
 import zone.dragon.dropwizard.AnnotatedConstructorInterceptorFactory;
 import zone.dragon.dropwizard.AnnotatedMethodInterceptorFactory;
-import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+import zone.dragon.dropwizard.metrics.MetricHandleCache;
 
 /**
  * Method interceptor that counts calls to methods annotated with {@link Counted @Counted} using a {@link Counter}
@@ -51,18 +52,18 @@ import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 @Singleton
 public class CountedInterceptorFactory
     implements AnnotatedMethodInterceptorFactory<Counted>, AnnotatedConstructorInterceptorFactory<Counted> {
-    private final MetricRegistry metricRegistry;
-
-    private final MetricNameService metricNameService;
+    private final MetricHandleCache metricHandleCache;
 
     @Inject
-    public CountedInterceptorFactory(@NonNull MetricRegistry metricRegistry, @NonNull MetricNameService metricNameService) {
-        this.metricRegistry = metricRegistry;
-        this.metricNameService = metricNameService;
+    public CountedInterceptorFactory(@NonNull MetricHandleCache metricHandleCache) {
+        this.metricHandleCache = metricHandleCache;
     }
 
     protected Object count(Executable executable, Counted annotation, Invocation invocation) throws Throwable {
-        Counter counter = getCounter(executable);
+        return count(getCounter(executable), annotation, invocation);
+    }
+
+    protected Object count(Counter counter, Counted annotation, Invocation invocation) throws Throwable {
         try {
             counter.inc();
             return invocation.proceed();
@@ -74,16 +75,18 @@ public class CountedInterceptorFactory
     }
 
     protected Counter getCounter(Executable executable) {
-        return metricRegistry.counter(metricNameService.getFormattedMetricName(executable, Counter.class));
+        return metricHandleCache.getMetric(executable, Counter.class, MetricRegistry::counter);
     }
 
     @Override
     public MethodInterceptor provide(Method method, Counted annotation) {
-        return invocation -> count(method, annotation, invocation);
+        Supplier<Counter> counter = metricHandleCache.bind(method, Counter.class, MetricRegistry::counter);
+        return invocation -> count(counter.get(), annotation, invocation);
     }
 
     @Override
     public ConstructorInterceptor provide(Constructor<?> constructor, Counted annotation) {
-        return invocation -> count(constructor, annotation, invocation);
+        Supplier<Counter> counter = metricHandleCache.bind(constructor, Counter.class, MetricRegistry::counter);
+        return invocation -> count(counter.get(), annotation, invocation);
     }
 }
@@ -30,6 +30,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -47,7 +48,7 @@ import lombok.NonNull;
 import zone.dragon.dropwizard.AnnotatedConstructorInterceptorFactory;
 import zone.dragon.dropwizard.AnnotatedMethodInterceptorFactory;
 import zone.dragon.dropwizard.AnnotationInterceptionService;
-import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+import zone.dragon.dropwizard.metrics.MetricHandleCache;
 
 /**
  * Interceptor that counts exceptions thrown from methods and constructors annotated with {@link ExceptionMetered @ExceptionMetered} using a
@@ -58,20 +59,15 @@ import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 @Singleton
 public class ExceptionMeteredInterceptorFactory
     implements AnnotatedMethodInterceptorFactory<ExceptionMetered>, AnnotatedConstructorInterceptorFactory<ExceptionMetered> {
-    private final MetricRegistry metricRegistry;
-
-    private final MetricNameService metricNameService;
+    private final MetricHandleCache metricHandleCache;
 
     /**
-     * @param metricRegistry
-     *     Registry used for creating metrics
-     * @param metricNameService
-     *     Naming service used to build contextual metric names
+     * @param metricHandleCache
+     *     Cache used for creating and looking up contextually named metrics
      */
     @Inject
-    public ExceptionMeteredInterceptorFactory(@NonNull MetricRegistry metricRegistry, @NonNull MetricNameService metricNameService) {
-        this.metricRegistry = metricRegistry;
-        this.metricNameService = metricNameService;
+    public ExceptionMeteredInterceptorFactory(@NonNull MetricHandleCache metricHandleCache) {
+        this.metricHandleCache = metricHandleCache;
     }
 
     /**
@@ -90,7 +86,25 @@ public class ExceptionMeteredInterceptorFactory
      *     Any exception thrown by {@code invocation}
      */
     protected Object exceptionMeter(Executable executable, ExceptionMetered annotation, Invocation invocation) throws Throwable {
-        Meter exceptionMeter = getExceptionMeter(executable);
+        return exceptionMeter(getExceptionMeter(executable), annotation, invocation);
+    }
+
+    /**
+     * Runs the {@code invocation} and tracks when exceptions are thrown
+     *
+     * @param exceptionMeter
+     *     Meter that is marked when an exception is thrown
+     * @param annotation
+     *     Annotation instance containing information on which exceptions are metered
+     * @param invocation
+     *     Intercepted execution that should be metered
+     *
+     * @return The result of {@code invocation}
+     *
+     * @throws Throwable
+     *     Any exception thrown by {@code invocation}
+     */
+    protected Object exceptionMeter(Meter exceptionMeter, ExceptionMetered annotation, Invocation invocation) throws Throwable {
         try {
             return invocation.proceed();
         } catch (Throwable t) {
@@ -118,7 +132,26 @@ public class ExceptionMeteredInterceptorFactory
      *     Any exception thrown by {@code invocation}
      */
     protected Object exceptionMeterAsync(Executable executable, ExceptionMetered annotation, Invocation invocation) throws Throwable {
-        Meter exceptionMeter = getExceptionMeter(executable);
+        return exceptionMeterAsync(getExceptionMeter(executable), annotation, invocation);
+    }
+
+    /**
+     * Runs the {@code invocation} and tracks when exceptions are thrown either by the method or a {@link CompletionStage} returned by the
+     * method
+     *
+     * @param exceptionMeter
+     *     Meter that is marked when an exception is thrown
+     * @param annotation
+     *     Annotation instance containing information on which exceptions are metered
+     * @param invocation
+     *     Intercepted execution that should be metered
+     *
+     * @return The result of {@code invocation}
+     *
+     * @throws Throwable
+     *     Any exception thrown by {@code invocation}
+     */
+    protected Object exceptionMeterAsync(Meter exceptionMeter, ExceptionMetered annotation, Invocation invocation) throws Throwable {
         try {
             CompletionStage<?> promise = (CompletionStage<?>) invocation.proceed();
             if (promise != null) {
@@ -146,7 +179,7 @@ public class ExceptionMeteredInterceptorFactory
      * @return An appropriately named meter
      */
     protected Meter getExceptionMeter(Executable executable) {
-        return metricRegistry.meter(metricNameService.getFormattedMetricName(executable, Meter.class));
+        return metricHandleCache.getMetric(executable, Meter.class, MetricRegistry::meter);
     }
 
     @Override
@@ -155,15 +188,17 @@ public class ExceptionMeteredInterceptorFactory
         if (isResourceMethod(method)) {
             return null;
         }
+        Supplier<Meter> exceptionMeter = metricHandleCache.bind(method, Meter.class, MetricRegistry::meter);
         if (CompletionStage.class.isAssignableFrom(method.getReturnType())) {
-            return invocation -> exceptionMeterAsync(method, annotation, invocation);
+            return invocation -> exceptionMeterAsync(exceptionMeter.get(), annotation, invocation);
         }
-        return invocation -> exceptionMeter(method, annotation, invocation);
+        return invocation -> exceptionMeter(exceptionMeter.get(), annotation, invocation);
     }
 
     @Override
     public ConstructorInterceptor provide(Constructor<?> constructor, ExceptionMetered annotation) {
-        return invocation -> exceptionMeter(constructor, annotation, invocation);
+        Supplier<Meter> exceptionMeter = metricHandleCache.bind(constructor, Meter.class, MetricRegistry::meter);
+        return invocation -> exceptionMeter(exceptionMeter.get(), annotation, invocation);
     }
 
     protected boolean isResourceMethod(Method method) {
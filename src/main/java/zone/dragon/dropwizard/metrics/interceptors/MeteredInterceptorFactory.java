@@ -29,6 +29,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
+import java.util.function.Supplier;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -45,7 +46,7 @@ import com.codahale.metrics.annotation.Metered;
 import lombok.NonNull;
 import zone.dragon.dropwizard.AnnotatedConstructorInterceptorFactory;
 import zone.dragon.dropwizard.AnnotatedMethodInterceptorFactory;
-import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+import zone.dragon.dropwizard.metrics.MetricHandleCache;
 
 /**
  * Method interceptor that counts calls to methods annotated with {@link Metered @Metered} using a {@link Meter}
@@ -53,28 +54,30 @@ import zone.dragon.dropwizard.metrics.naming.MetricNameService;
 @Singleton
 public class MeteredInterceptorFactory
     implements AnnotatedMethodInterceptorFactory<Metered>, AnnotatedConstructorInterceptorFactory<Metered> {
-    private final MetricRegistry metricRegistry;
-
-    private final MetricNameService metricNameService;
+    private final MetricHandleCache metricHandleCache;
 
     @Inject
-    public MeteredInterceptorFactory(@NonNull MetricRegistry metricRegistry, @NonNull MetricNameService metricNameService) {
-        this.metricRegistry = metricRegistry;
-        this.metricNameService = metricNameService;
+    public MeteredInterceptorFactory(@NonNull MetricHandleCache metricHandleCache) {
+        this.metricHandleCache = metricHandleCache;
     }
 
     protected Meter getMeter(Executable executable) {
-        return metricRegistry.meter(metricNameService.getFormattedMetricName(executable, Meter.class));
+        return metricHandleCache.getMetric(executable, Meter.class, MetricRegistry::meter);
     }
 
     protected Object meter(Executable executable, Invocation invocation) throws Throwable {
-        getMeter(executable).mark();
+        return meter(getMeter(executable), invocation);
+    }
+
+    protected Object meter(Meter meter, Invocation invocation) throws Throwable {
+        meter.mark();
         return invocation.proceed();
     }
 
     @Override
     public ConstructorInterceptor provide(Constructor<?> constructor, Metered annotation) {
-        return invocation -> meter(constructor, invocation);
+        Supplier<Meter> meter = metricHandleCache.bind(constructor, Meter.class, MetricRegistry::meter);
+        return invocation -> meter(meter.get(), invocation);
     }
 
     @Override
@@ -85,6 +88,7 @@ public class MeteredInterceptorFactory
                 return null;
             }
         }
-        return invocation -> meter(method, invocation);
+        Supplier<Meter> meter = metricHandleCache.bind(method, Meter.class, MetricRegistry::meter);
+        return invocation -> meter(meter.get(), invocation);
     }
 }
@@ -30,6 +30,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -39,7 +40,6 @@ import org.aopalliance.intercept.ConstructorInterceptor;
 import org.aopalliance.intercept.Invocation;
 import org.aopalliance.intercept.MethodInterceptor;
 
-import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.codahale.metrics.Timer.Context;
 import com.codahale.metrics.annotation.Timed;
@@ -47,25 +47,28 @@ import com.codahale.metrics.annotation.Timed;
 import lombok.NonNull;
 import zone.dragon.dropwizard.AnnotatedConstructorInterceptorFactory;
 import zone.dragon.dropwizard.AnnotatedMethodInterceptorFactory;
-import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+import zone.dragon.dropwizard.metrics.MetricHandleCache;
+import zone.dragon.dropwizard.metrics.MetricReservoir;
+import zone.dragon.dropwizard.metrics.ReservoirFactory;
 
 /**
- * Method interceptor that times methods annotated with {@link Timed @Timed} using a {@link Timer}
+ * Method interceptor that times methods annotated with {@link Timed @Timed} using a {@link Timer}; The timer's reservoir is chosen by the
+ * {@link ReservoirFactory}, and can be selected per method with {@link MetricReservoir @MetricReservoir}
  */
 @Singleton
 public class TimedInterceptorFactory implements AnnotatedMethodInterceptorFactory<Timed>, AnnotatedConstructorInterceptorFactory<Timed> {
-    private final MetricRegistry metricRegistry;
+    private final MetricHandleCache metricHandleCache;
 
-    private final MetricNameService metricNameService;
+    private final ReservoirFactory reservoirFactory;
 
     @Inject
-    public TimedInterceptorFactory(@NonNull MetricRegistry metricRegistry, @NonNull MetricNameService metricNameService) {
-        this.metricRegistry = metricRegistry;
-        this.metricNameService = metricNameService;
+    public TimedInterceptorFactory(@NonNull MetricHandleCache metricHandleCache, @NonNull ReservoirFactory reservoirFactory) {
+        this.metricHandleCache = metricHandleCache;
+        this.reservoirFactory = reservoirFactory;
     }
 
     protected Timer getTimer(Executable executable) {
-        return metricRegistry.timer(metricNameService.getFormattedMetricName(executable, Timer.class));
+        return metricHandleCache.getMetric(executable, Timer.class, reservoirFactory.timerSupplier(executable));
     }
 
     @Override
@@ -74,15 +77,18 @@ public class TimedInterceptorFactory implements AnnotatedMethodInterceptorFactor
         if (isResourceMethod(method)) {
             return null;
         }
+        // Names that can't change between requests are resolved once, here
+        Supplier<Timer> timer = metricHandleCache.bind(method, Timer.class, reservoirFactory.timerSupplier(method));
         if (CompletionStage.class.isAssignableFrom(method.getReturnType())) {
-            return invocation -> timeAsync(method, invocation);
+            return invocation -> timeAsync(timer.get(), invocation);
         }
-        return invocation -> time(method, invocation);
+        return invocation -> time(timer.get(), invocation);
     }
 
     @Override
     public ConstructorInterceptor provide(Constructor<?> constructor, Timed annotation) {
-        return invocation -> time(constructor, invocation);
+        Supplier<Timer> timer = metricHandleCache.bind(constructor, Timer.class, reservoirFactory.timerSupplier(constructor));
+        return invocation -> time(timer.get(), invocation);
     }
 
     protected boolean isResourceMethod(Method method) {
@@ -96,7 +102,11 @@ public class TimedInterceptorFactory implements AnnotatedMethodInterceptorFactor
     }
 
     protected Object timeAsync(Executable executable, Invocation invocation) throws Throwable {
-        Context context = getTimer(executable).time();
+        return timeAsync(getTimer(executable), invocation);
+    }
+
+    protected Object timeAsync(Timer timer, Invocation invocation) throws Throwable {
+        Context context = timer.time();
         try {
             CompletionStage<?> promise = (CompletionStage<?>) invocation.proceed();
             if (promise != null) {
@@ -110,7 +120,11 @@ public class TimedInterceptorFactory implements AnnotatedMethodInterceptorFactor
     }
 
     protected Object time(Executable executable, Invocation invocation) throws Throwable {
-        try (Context ignored = getTimer(executable).time()) {
+        return time(getTimer(executable), invocation);
+    }
+
+    protected Object time(Timer timer, Invocation invocation) throws Throwable {
+        try (Context ignored = timer.time()) {
             return invocation.proceed();
         }
     }
@@ -25,25 +25,43 @@
 
 package zone.dragon.dropwizard.metrics.naming;
 
-import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import jakarta.inject.Singleton;
 
-import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 
+import lombok.NonNull;
+import lombok.Value;
+
 /**
  * Formats metric names as a name followed by a set of tags
+ * <p>
+ * Names are built by appending each segment directly into a reusable per-thread builder, and the most recently formatted names are cached,
+ * so formatting the same {@link MetricName} repeatedly does not allocate.
  */
 @Singleton
 public class DefaultMetricNameFormatter implements MetricNameFormatter {
-    private final String tagSeparator;
+    /**
+     * Number of slots in the formatted name cache; must be a power of two
+     */
+    private static final int CACHE_SIZE = 1024;
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String namePrefix;
+
+    private final String nameSuffix;
+
+    private final String tagsPrefix;
 
     private final String kvSeparator;
 
-    private final String nameFormat;
+    private final String tagSeparator;
+
+    private final String tagsSuffix;
 
-    private final String taggedNameFormat;
+    private final AtomicReferenceArray<FormattedName> cache = new AtomicReferenceArray<>(CACHE_SIZE);
 
     /**
      * Formats metric names as a name followed by a comma-separated tags inside of <code>{}</code>
@@ -62,27 +80,50 @@ public class DefaultMetricNameFormatter implements MetricNameFormatter {
         String tagSuffix,
         String tagsSuffix
     ) {
+        this.namePrefix = Strings.nullToEmpty(namePrefix);
+        this.nameSuffix = Strings.nullToEmpty(nameSuffix);
+        this.tagsPrefix = Strings.nullToEmpty(tagsPrefix) + Strings.nullToEmpty(tagPrefix);
+        this.kvSeparator = Strings.nullToEmpty(kvSeparator);
         this.tagSeparator = Strings.nullToEmpty(tagSuffix) + Strings.nullToEmpty(tagSeparator) + Strings.nullToEmpty(tagPrefix);
-        this.kvSeparator = kvSeparator;
-        StringBuilder sb = new StringBuilder();
-        sb.append(Strings.nullToEmpty(namePrefix)).append("%s").append(Strings.nullToEmpty(nameSuffix));
-        nameFormat = sb.toString();
-        sb
-            .append(Strings.nullToEmpty(tagsPrefix))
-            .append(Strings.nullToEmpty(tagPrefix))
-            .append("%s")
-            .append(Strings.nullToEmpty(tagSuffix))
-            .append(Strings.nullToEmpty(tagsSuffix));
-        taggedNameFormat = sb.toString();
+        this.tagsSuffix = Strings.nullToEmpty(tagSuffix) + Strings.nullToEmpty(tagsSuffix);
     }
 
     @Override
-    public String formatName(MetricName metricName) {
-        if (metricName.getTags().isEmpty()) {
-            return String.format(nameFormat, metricName.getName());
+    public String formatName(@NonNull MetricName metricName) {
+        int hash = metricName.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+        FormattedName cached = cache.get(slot);
+        if (cached != null && cached.getMetricName().equals(metricName)) {
+            return cached.getFormatted();
+        }
+        String formatted = buildName(metricName);
+        cache.set(slot, new FormattedName(metricName, formatted));
+        return formatted;
+    }
+
+    protected String buildName(MetricName metricName) {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        builder.append(namePrefix).append(metricName.getName()).append(nameSuffix);
+        int tagCount = metricName.getTagCount();
+        if (tagCount > 0) {
+            // Tags are already sorted, so they always appear in a deterministic order
+            builder.append(tagsPrefix);
+            for (int i = 0; i < tagCount; i++) {
+                if (i > 0) {
+                    builder.append(tagSeparator);
+                }
+                builder.append(metricName.getTagKey(i)).append(kvSeparator).append(metricName.getTagValue(i));
+            }
+            builder.append(tagsSuffix);
         }
-        // Tree map to ensure that tags are sorted and always appear in a deterministic order
-        String tags = Joiner.on(tagSeparator).withKeyValueSeparator(kvSeparator).join(new TreeMap<>(metricName.getTags()));
-        return String.format(taggedNameFormat, metricName.getName(), tags);
+        return builder.toString();
+    }
+
+    @Value
+    private static class FormattedName {
+        MetricName metricName;
+
+        String formatted;
     }
 }
@@ -27,25 +27,50 @@ package zone.dragon.dropwizard.metrics.naming;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
+import java.util.List;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import org.glassfish.hk2.api.ActiveDescriptor;
+import org.glassfish.hk2.api.DynamicConfigurationListener;
 import org.glassfish.hk2.api.IterableProvider;
+import org.glassfish.hk2.api.ServiceHandle;
 import org.jvnet.hk2.annotations.Optional;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Value;
 
 /**
  * Builds metric names using all available {@link MetricNameFilter} and a {@link MetricNameFormatter}; Filters are processed descending rank
  * order, with highest rank running first and lowest rank running last.
+ * <p>
+ * The ranked filters are looked up once and kept in an array; The array is only rebuilt when a configuration change adds or removes a
+ * {@link MetricNameFilter}. The result of running the leading filters that are not
+ * {@link MetricNameFilter#isRequestScoped() request-scoped} is cached for each injection site, so only the remaining filters run each time
+ * a name is built.
  */
 @Singleton
-public class DefaultMetricNameService implements MetricNameService {
+public class DefaultMetricNameService implements MetricNameService, DynamicConfigurationListener {
+    /**
+     * Maximum number of distinct injection sites and base names for which static names are cached
+     */
+    private static final int STATIC_NAME_CACHE_SIZE = 10000;
+
     private final IterableProvider<MetricNameFilter> filters;
 
     private final MetricNameFormatter formatter;
 
+    private volatile FilterChain filterChain = null;
+
+    private volatile boolean stale = true;
+
     @Inject
     public DefaultMetricNameService(@NonNull IterableProvider<MetricNameFilter> filters, @Optional MetricNameFormatter formatter) {
         this.filters = filters;
@@ -54,15 +79,107 @@ public class DefaultMetricNameService implements MetricNameService {
 
     @Override
     public MetricName getMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
-        MetricName name = MetricName.of(baseName);
-        for (MetricNameFilter filter : filters) {
-            name = filter.buildName(name, injectionSite, metricType);
+        FilterChain chain = getFilterChain();
+        MetricNameFilter[] chainFilters = chain.getFilters();
+        int staticCount = chain.getStaticCount();
+        MetricName name;
+        if (staticCount == 0) {
+            name = MetricName.of(baseName);
+        } else {
+            StaticNameKey key = StaticNameKey.of(injectionSite, metricType, baseName);
+            name = chain.getStaticNames().getIfPresent(key);
+            if (name == null) {
+                name = MetricName.of(baseName);
+                for (int i = 0; i < staticCount; i++) {
+                    name = chainFilters[i].buildName(name, injectionSite, metricType);
+                }
+                chain.getStaticNames().put(key, name);
+            }
+        }
+        for (int i = staticCount; i < chainFilters.length; i++) {
+            name = chainFilters[i].buildName(name, injectionSite, metricType);
         }
         return name;
     }
 
+    @Override
+    public boolean isRequestScoped(AnnotatedElement injectionSite, Type metricType) {
+        FilterChain chain = getFilterChain();
+        return chain.getStaticCount() < chain.getFilters().length;
+    }
+
     @Override
     public String getFormattedMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
         return formatter.formatName(getMetricName(injectionSite, metricType, baseName));
     }
+
+    @Override
+    public void configurationChanged() {
+        stale = true;
+    }
+
+    /**
+     * Returns the ranked filters, refreshing them from the locator if the configuration has changed since they were last looked up
+     *
+     * @return Filters in the order they should be applied
+     */
+    protected MetricNameFilter[] getFilters() {
+        return getFilterChain().getFilters();
+    }
+
+    protected FilterChain getFilterChain() {
+        FilterChain chain = filterChain;
+        if (chain != null && !stale) {
+            return chain;
+        }
+        synchronized (this) {
+            if (filterChain == null || stale) {
+                // Clear first so that changes made while we refresh cause another check
+                stale = false;
+                List<ServiceHandle<MetricNameFilter>> handles = Lists.newArrayList(filters.handleIterator());
+                List<ActiveDescriptor<?>> descriptors = ImmutableList.copyOf(Lists.transform(handles, ServiceHandle::getActiveDescriptor));
+                // Most configuration changes don't touch the filters, so keep the existing chain unless they did
+                if (filterChain == null || !descriptors.equals(filterChain.getDescriptors())) {
+                    filterChain = new FilterChain(descriptors, Lists.transform(handles, ServiceHandle::getService));
+                }
+            }
+            return filterChain;
+        }
+    }
+
+    /**
+     * Snapshot of the ranked filters, along with the cached output of the leading filters that are not request-scoped
+     */
+    @Getter
+    protected static class FilterChain {
+        private final List<ActiveDescriptor<?>> descriptors;
+
+        private final MetricNameFilter[] filters;
+
+        /**
+         * Number of leading filters that are not request-scoped; These are the filters whose output is cached in {@link #staticNames}
+         */
+        private final int staticCount;
+
+        private final Cache<StaticNameKey, MetricName> staticNames = CacheBuilder.newBuilder().maximumSize(STATIC_NAME_CACHE_SIZE).build();
+
+        protected FilterChain(List<ActiveDescriptor<?>> descriptors, List<MetricNameFilter> filters) {
+            this.descriptors = descriptors;
+            this.filters = filters.toArray(new MetricNameFilter[0]);
+            int staticCount = 0;
+            while (staticCount < this.filters.length && !this.filters[staticCount].isRequestScoped()) {
+                staticCount++;
+            }
+            this.staticCount = staticCount;
+        }
+    }
+
+    @Value(staticConstructor = "of")
+    protected static class StaticNameKey {
+        AnnotatedElement injectionSite;
+
+        Type metricType;
+
+        String baseName;
+    }
 }
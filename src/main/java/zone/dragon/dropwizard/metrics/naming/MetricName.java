@@ -25,21 +25,48 @@
 
 package zone.dragon.dropwizard.metrics.naming;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Ordering;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.NonNull;
-import lombok.experimental.Accessors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Represents a named metric, which may also contain tags
+ * Represents a named metric, which may also contain tags. Names are immutable; Tags are kept sorted by key in a compact array, and the hash
+ * code is computed once when the name is created.
+ * <p>
+ * Recently created names are kept in a small interning table, so building a name that is identical to one that was recently built, such as
+ * by applying the same tags on every call through a hot path, returns the existing instance instead of allocating a new one.
+ * <p>
+ * Earlier versions of this class were mutable, which changes its contract in the following ways:
+ * <ul>
+ * <li>{@link #setName(String)}, {@link #setTags(Map)} and {@link #addTag(String, String)} are deprecated adapters that return a new name
+ * instead of modifying this one; Chained calls such as {@code name.addTag("a", "b").addTag("c", "d")} keep working as long as the result is
+ * used, but a result that is discarded is lost. Use {@link #withName(String)}, {@link #withTags(Map)} and {@link #withTag(String, String)}
+ * instead.</li>
+ * <li>{@link #getTags()} returns an unmodifiable map; Use {@link #withTag(String, String)} or {@link #withTags(Map)} to change tags.</li>
+ * <li>The class is {@code final}; Names should be built with {@link #of(String, Map)}, which may return a shared instance, though the
+ * deprecated {@link #MetricName(String, Map) constructor} still creates a new one.</li>
+ * </ul>
  */
-@Data
-@AllArgsConstructor
-@Accessors(chain = true)
-public class MetricName {
+public final class MetricName {
+    private static final String[] NO_TAGS = new String[0];
+
+    /**
+     * Number of slots in the interning table; must be a power of two
+     */
+    private static final int INTERN_TABLE_SIZE = 4096;
+
+    private static final AtomicReferenceArray<MetricName> INTERNED = new AtomicReferenceArray<>(INTERN_TABLE_SIZE);
+
     /**
      * Creates a new metric name with no tags
      *
@@ -49,7 +76,12 @@ public class MetricName {
      * @return MetricName representing a bare metric
      */
     public static MetricName of(String name) {
-        return of(name, new TreeMap<>());
+        int hash = hash(name, 0);
+        MetricName interned = INTERNED.get(slot(hash));
+        if (interned != null && interned.hash == hash && interned.tags.length == 0 && Objects.equals(interned.name, name)) {
+            return interned;
+        }
+        return intern(new MetricName(name, NO_TAGS, 0));
     }
 
     /**
@@ -63,22 +95,435 @@ public class MetricName {
      * @return MetricName representing a metric with tags
      */
     public static MetricName of(String name, @NonNull Map<String, String> tags) {
-        return new MetricName(name, tags);
+        if (tags.isEmpty()) {
+            return of(name);
+        }
+        if (isNaturallySorted(tags)) {
+            // Already in key order, so a recently built name can be found without copying the tags
+            int tagHash = 0;
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                String value = checkNotNull(tag.getValue(), "Value for tag %s must not be null", tag.getKey());
+                tagHash = 31 * (31 * tagHash + tag.getKey().hashCode()) + value.hashCode();
+            }
+            int hash = hash(name, tagHash);
+            MetricName interned = INTERNED.get(slot(hash));
+            if (interned != null && interned.hash == hash && Objects.equals(interned.name, name) && interned.hasTags(tags)) {
+                return interned;
+            }
+            String[] sortedTags = new String[tags.size() * 2];
+            int i = 0;
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                sortedTags[i++] = tag.getKey();
+                sortedTags[i++] = tag.getValue();
+            }
+            return intern(new MetricName(name, sortedTags, tagHash));
+        }
+        String[] sortedTags = new String[tags.size() * 2];
+        int count = 0;
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            String key = tag.getKey();
+            String value = checkNotNull(tag.getValue(), "Value for tag %s must not be null", key);
+            // Insertion sort; tag maps are small, and this avoids copying them into a sorted map first
+            int position = count;
+            while (position > 0 && sortedTags[position * 2 - 2].compareTo(key) > 0) {
+                sortedTags[position * 2] = sortedTags[position * 2 - 2];
+                sortedTags[position * 2 + 1] = sortedTags[position * 2 - 1];
+                position--;
+            }
+            sortedTags[position * 2] = key;
+            sortedTags[position * 2 + 1] = value;
+            count++;
+        }
+        int tagHash = tagHash(sortedTags);
+        int hash = hash(name, tagHash);
+        MetricName interned = INTERNED.get(slot(hash));
+        if (interned != null && interned.hash == hash && Objects.equals(interned.name, name) && Arrays.equals(interned.tags, sortedTags)) {
+            return interned;
+        }
+        return intern(new MetricName(name, sortedTags, tagHash));
+    }
+
+    private static boolean isNaturallySorted(Map<String, String> tags) {
+        if (!(tags instanceof SortedMap)) {
+            return false;
+        }
+        Comparator<?> comparator = ((SortedMap<String, String>) tags).comparator();
+        return comparator == null || comparator == Ordering.natural();
+    }
+
+    private static int tagHash(String[] tags) {
+        int hash = 0;
+        for (String tag : tags) {
+            hash = 31 * hash + tag.hashCode();
+        }
+        return hash;
+    }
+
+    private static int hash(String name, int tagHash) {
+        return 31 * Objects.hashCode(name) + tagHash;
+    }
+
+    private static int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & (INTERN_TABLE_SIZE - 1);
+    }
+
+    private static MetricName intern(MetricName metricName) {
+        // Direct-mapped, so a collision simply replaces the previous entry
+        INTERNED.set(slot(metricName.hash), metricName);
+        return metricName;
     }
 
     /**
      * Name of the metric, which uniquely identifies the type of information represented by the metric and the source of that information
      */
-    private String name;
+    private final String name;
+
+    /**
+     * Contextual tags of the metric, which hold attributes describing the code path used to reach the metric; Stored as alternating keys
+     * and values, sorted by key.
+     */
+    private final String[] tags;
+
+    private final int tagHash;
+
+    private final int hash;
+
+    private Map<String, String> tagMap;
+
+    /**
+     * Creates a new metric name
+     *
+     * @param name
+     *     Name of the metric
+     * @param tags
+     *     Tags for this metric, which are copied
+     *
+     * @deprecated Use {@link #of(String, Map)}, which can reuse a recently built name instead of allocating a new one
+     */
+    @Deprecated
+    public MetricName(String name, @NonNull Map<String, String> tags) {
+        this(name, tags.isEmpty() ? NO_TAGS : of(name, tags).tags);
+    }
+
+    private MetricName(String name, String[] tags) {
+        this(name, tags, tagHash(tags));
+    }
+
+    private MetricName(String name, String[] tags, int tagHash) {
+        this.name = name;
+        this.tags = tags;
+        this.tagHash = tagHash;
+        this.hash = hash(name, tagHash);
+    }
+
+    /**
+     * @return Name of the metric, which uniquely identifies the type of information represented by the metric and the source of that
+     *     information
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Unmodifiable view of the tags on this metric, sorted by key
+     */
+    public Map<String, String> getTags() {
+        Map<String, String> tagMap = this.tagMap;
+        if (tagMap == null) {
+            ImmutableSortedMap.Builder<String, String> builder = ImmutableSortedMap.naturalOrder();
+            for (int i = 0; i < tags.length; i += 2) {
+                builder.put(tags[i], tags[i + 1]);
+            }
+            this.tagMap = tagMap = builder.build();
+        }
+        return tagMap;
+    }
+
+    /**
+     * @return Number of tags on this metric
+     */
+    public int getTagCount() {
+        return tags.length / 2;
+    }
+
+    /**
+     * @param index
+     *     Index of the tag, from {@code 0} to {@link #getTagCount()}, in key order
+     *
+     * @return The key of the tag at {@code index}
+     */
+    public String getTagKey(int index) {
+        return tags[index * 2];
+    }
+
+    /**
+     * @param index
+     *     Index of the tag, from {@code 0} to {@link #getTagCount()}, in key order
+     *
+     * @return The value of the tag at {@code index}
+     */
+    public String getTagValue(int index) {
+        return tags[index * 2 + 1];
+    }
 
     /**
-     * Contextual tags of the metric, which hold attributes describing the code path used to reach the metric.
+     * @param key
+     *     Key of the tag
+     *
+     * @return The value of the tag, or {@code null} if this metric has no tag with that key
      */
-    @NonNull
-    private Map<String, String> tags;
+    public String getTag(@NonNull String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : tags[index + 1];
+    }
 
+    /**
+     * Returns a metric name with the same tags as this one but a different name
+     *
+     * @param name
+     *     New name of the metric
+     *
+     * @return Metric name with the new name
+     */
+    public MetricName withName(String name) {
+        if (Objects.equals(this.name, name)) {
+            return this;
+        }
+        int hash = hash(name, tagHash);
+        MetricName interned = INTERNED.get(slot(hash));
+        if (interned != null && interned.hash == hash && Objects.equals(interned.name, name) && Arrays.equals(interned.tags, tags)) {
+            return interned;
+        }
+        return intern(new MetricName(name, tags, tagHash));
+    }
+
+    /**
+     * Returns a metric name with an additional tag; If a tag with the same key already exists, its value is replaced.
+     *
+     * @param key
+     *     Key of the tag
+     * @param value
+     *     Value of the tag
+     *
+     * @return Metric name with the tag
+     */
+    public MetricName withTag(@NonNull String key, @NonNull String value) {
+        int index = indexOf(key);
+        boolean replace = index >= 0;
+        if (replace && tags[index + 1].equals(value)) {
+            return this;
+        }
+        // Position of the key in the new tag array
+        int position = replace ? index : -(index + 1);
+        int length = replace ? tags.length : tags.length + 2;
+        // Compute the hash of the new tags without building them, so that a recently built name can be reused without allocating
+        int newTagHash = 0;
+        for (int i = 0; i < length; i++) {
+            newTagHash = 31 * newTagHash + tagAt(i, position, replace, key, value).hashCode();
+        }
+        int hash = hash(name, newTagHash);
+        MetricName interned = INTERNED.get(slot(hash));
+        if (interned != null && interned.hash == hash && interned.tags.length == length && Objects.equals(interned.name, name)) {
+            boolean matches = true;
+            for (int i = 0; matches && i < length; i++) {
+                matches = interned.tags[i].equals(tagAt(i, position, replace, key, value));
+            }
+            if (matches) {
+                return interned;
+            }
+        }
+        String[] newTags = new String[length];
+        for (int i = 0; i < length; i++) {
+            newTags[i] = tagAt(i, position, replace, key, value);
+        }
+        return intern(new MetricName(name, newTags, newTagHash));
+    }
+
+    /**
+     * Returns the entry at {@code i} of the tag array that would result from adding {@code key} and {@code value} at {@code position}
+     */
+    private String tagAt(int i, int position, boolean replace, String key, String value) {
+        if (i == position) {
+            return key;
+        }
+        if (i == position + 1) {
+            return value;
+        }
+        return replace || i < position ? tags[i] : tags[i - 2];
+    }
+
+    /**
+     * Returns a metric name with the same name as this one but different tags
+     *
+     * @param tags
+     *     New tags for the metric
+     *
+     * @return Metric name with the new tags
+     */
+    public MetricName withTags(@NonNull Map<String, String> tags) {
+        return of(name, tags);
+    }
+
+    /**
+     * Returns a metric name with all of the tags of another name added to this one's; Tags with the same key are replaced. If this name
+     * already has all of those tags, it is returned as is.
+     *
+     * @param tagged
+     *     Name whose tags to add; Its name is ignored
+     *
+     * @return Metric name with both sets of tags
+     */
+    public MetricName withAllTags(@NonNull MetricName tagged) {
+        String[] added = tagged.tags;
+        if (added.length == 0) {
+            return this;
+        }
+        if (tags.length == 0) {
+            return tagged.withName(name);
+        }
+        boolean present = true;
+        for (int i = 0; present && i < added.length; i += 2) {
+            int index = indexOf(added[i]);
+            present = index >= 0 && tags[index + 1].equals(added[i + 1]);
+        }
+        if (present) {
+            return this;
+        }
+        // Merge the two sorted tag arrays, preferring the added value when both have a key
+        String[] merged = new String[tags.length + added.length];
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        while (i < tags.length || j < added.length) {
+            int comparison = i >= tags.length ? 1 : j >= added.length ? -1 : tags[i].compareTo(added[j]);
+            if (comparison < 0) {
+                merged[length++] = tags[i++];
+                merged[length++] = tags[i++];
+            } else {
+                merged[length++] = added[j++];
+                merged[length++] = added[j++];
+                if (comparison == 0) {
+                    i += 2;
+                }
+            }
+        }
+        if (length < merged.length) {
+            merged = Arrays.copyOf(merged, length);
+        }
+        int tagHash = tagHash(merged);
+        int hash = hash(name, tagHash);
+        MetricName interned = INTERNED.get(slot(hash));
+        if (interned != null && interned.hash == hash && Objects.equals(interned.name, name) && Arrays.equals(interned.tags, merged)) {
+            return interned;
+        }
+        return intern(new MetricName(name, merged, tagHash));
+    }
+
+    /**
+     * Checks whether this name has exactly the given tags, which must be in key order
+     */
+    private boolean hasTags(Map<String, String> tags) {
+        if (this.tags.length != tags.size() * 2) {
+            return false;
+        }
+        int i = 0;
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!this.tags[i++].equals(tag.getKey()) || !this.tags[i++].equals(tag.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds a tag key using a binary search
+     *
+     * @return Index of the key in {@link #tags} if found, otherwise {@code -(insertion index) - 1}
+     */
+    private int indexOf(String key) {
+        int low = 0;
+        int high = tags.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = tags[mid * 2].compareTo(key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid * 2;
+            }
+        }
+        return -(low * 2) - 1;
+    }
+
+    /**
+     * Adapter for the previous mutable API; Equivalent to {@link #withName(String)}, and the result must be used in place of this name
+     *
+     * @param name
+     *     New name of the metric
+     *
+     * @return Metric name with the new name
+     *
+     * @deprecated Use {@link #withName(String)}
+     */
+    @Deprecated
+    public MetricName setName(String name) {
+        return withName(name);
+    }
+
+    /**
+     * Adapter for the previous mutable API; Equivalent to {@link #withTags(Map)}, and the result must be used in place of this name
+     *
+     * @param tags
+     *     New tags for the metric
+     *
+     * @return Metric name with the new tags
+     *
+     * @deprecated Use {@link #withTags(Map)}
+     */
+    @Deprecated
+    public MetricName setTags(@NonNull Map<String, String> tags) {
+        return withTags(tags);
+    }
+
+    /**
+     * Adapter for the previous mutable API; Equivalent to {@link #withTag(String, String)}, and the result must be used in place of this
+     * name
+     *
+     * @param key
+     *     Key of the tag
+     * @param value
+     *     Value of the tag
+     *
+     * @return Metric name with the tag
+     *
+     * @deprecated Use {@link #withTag(String, String)}
+     */
+    @Deprecated
     public MetricName addTag(@NonNull String key, @NonNull String value) {
-        getTags().put(key, value);
-        return this;
+        return withTag(key, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricName)) {
+            return false;
+        }
+        MetricName other = (MetricName) o;
+        return hash == other.hash && Objects.equals(name, other.name) && Arrays.equals(tags, other.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricName(name=" + name + ", tags=" + getTags() + ")";
     }
 }
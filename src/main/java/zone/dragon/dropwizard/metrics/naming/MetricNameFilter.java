@@ -69,4 +69,18 @@ public interface MetricNameFilter {
      * @return The updated {@code metricName}
      */
     MetricName buildName(MetricName metricName, AnnotatedElement injectionSite, Type metricType);
+
+    /**
+     * Indicates whether the output of this filter may depend on the request being processed. Filters that are not request-scoped must
+     * always produce the same result for the same {@code metricName}, {@code injectionSite}, and {@code metricType}, which allows their
+     * results to be computed once and cached.
+     * <p>
+     * Filters are assumed to be request-scoped unless they override this to return {@code false}, so that a filter which reads request
+     * state is never cached by mistake.
+     *
+     * @return {@code true} if the output of this filter may change between requests
+     */
+    default boolean isRequestScoped() {
+        return true;
+    }
 }
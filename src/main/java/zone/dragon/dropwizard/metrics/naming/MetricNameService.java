@@ -102,4 +102,19 @@ public interface MetricNameService {
      */
     MetricName getMetricName(AnnotatedElement injectionSite, Type metricType, String baseName);
 
+    /**
+     * Determines if the name generated for an injection site may depend on the request being processed when the name is generated. If this
+     * returns {@code false}, callers are free to resolve the name once and reuse it for every subsequent use of the injection site.
+     *
+     * @param injectionSite
+     *     Parameter/field being injected or method/constructor being intercepted, or {@code null} if a metric is not being named due to an
+     *     injection.
+     * @param metricType
+     *     Type of metric that is being named
+     *
+     * @return {@code true} if the name may vary between requests, or {@code false} if it is always the same
+     */
+    default boolean isRequestScoped(AnnotatedElement injectionSite, Type metricType) {
+        return true;
+    }
 }
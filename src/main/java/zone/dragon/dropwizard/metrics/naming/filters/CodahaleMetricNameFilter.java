@@ -98,13 +98,18 @@ public class CodahaleMetricNameFilter implements MetricNameFilter {
         // metricType is not included in the key because an injeciton site should always have the same metric type
         try {
             String name = nameCache.get(injectionSite, () -> buildCodahaleName(injectionSite, metricType));
-            return metricName.setName(name);
+            return metricName.withName(name);
         } catch (ExecutionException e) {
             log.warn("Failed to inspect metric annotations on {}", injectionSite, e);
             return metricName;
         }
     }
 
+    @Override
+    public boolean isRequestScoped() {
+        return false;
+    }
+
     /**
      * Extracts name information from codahale annotations on the {@code injectionSite}
      *
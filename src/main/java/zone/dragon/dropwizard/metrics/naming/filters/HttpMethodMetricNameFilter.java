@@ -27,6 +27,7 @@ package zone.dragon.dropwizard.metrics.naming.filters;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
+import java.util.Map;
 
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
@@ -34,6 +35,8 @@ import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.core.Request;
 
+import com.google.common.collect.ImmutableMap;
+
 import lombok.NonNull;
 import zone.dragon.dropwizard.metrics.naming.MetricName;
 import zone.dragon.dropwizard.metrics.naming.MetricNameFilter;
@@ -73,12 +76,21 @@ public class HttpMethodMetricNameFilter extends RequestScopedMetricNameFilter {
 
     @Override
     public MetricName buildRequestScopedName(MetricName metricName, AnnotatedElement injectionSite, Type metricType) {
+        RequestMetricContext context = RequestMetricContext.current();
+        if (context != null && context.getHttpMethod() != null) {
+            return metricName.withTag(tagName, context.getHttpMethod());
+        }
         checkState(requestProvider != null, "requestProvider must be set");
         Request request = requestProvider.get();
         if (request == null) {
             return metricName;
         }
-        return metricName.addTag(tagName, request.getMethod());
+        return metricName.withTag(tagName, request.getMethod());
+    }
+
+    @Override
+    protected Map<String, String> getResourceTags(RequestMetricContext context) {
+        return context.getHttpMethod() == null ? null : ImmutableMap.of(tagName, context.getHttpMethod());
     }
 
     public void setResourceInfoProvider(@NonNull Provider<Request> requestProvider) {
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics.naming.filters;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.glassfish.jersey.server.model.ResourceMethod;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameFilter;
+
+/**
+ * Describes the resource method handling the request on the current thread. This is populated by {@link RequestMetricContextListener}
+ * when Jersey starts invoking a resource method, so that {@link RequestScopedMetricNameFilter request-scoped filters} can read it with a
+ * thread-local lookup instead of entering the request scope. Contexts are built once per resource method when the application starts, so
+ * the tag values they carry are computed once rather than on every request.
+ * <p>
+ * A context also carries the {@link #getResourceTags() tags} that the {@link RequestScopedMetricNameFilter#getResourceTags precomputable}
+ * filters add for its resource method, so that naming a metric during the request adds all of them with a single
+ * {@link MetricName#withAllTags(MetricName)}.
+ */
+@Getter
+public final class RequestMetricContext {
+    private static final ThreadLocal<RequestMetricContext> CURRENT = new ThreadLocal<>();
+
+    private static final RequestScopedMetricNameFilter[] NO_TAG_SOURCES = new RequestScopedMetricNameFilter[0];
+
+    /**
+     * @return Context for the resource method running on the current thread, or {@code null} if no resource method is running
+     */
+    public static RequestMetricContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Creates a context for a resource method
+     *
+     * @param resourceMethod
+     *     Resource method from the Jersey resource model
+     * @param httpMethod
+     *     HTTP method of the request
+     *
+     * @return Context describing {@code resourceMethod}
+     */
+    public static RequestMetricContext of(@NonNull ResourceMethod resourceMethod, String httpMethod) {
+        return new RequestMetricContext(
+            resourceMethod.getInvocable().getHandler().getHandlerClass(),
+            resourceMethod.getInvocable().getDefinitionMethod(),
+            httpMethod
+        );
+    }
+
+    static void set(RequestMetricContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Class of the resource handling the request
+     */
+    private final Class<?> resourceClass;
+
+    /**
+     * Resource method handling the request
+     */
+    private final Method resourceMethod;
+
+    /**
+     * HTTP method of the request
+     */
+    private final String httpMethod;
+
+    /**
+     * Simple name of {@link #resourceClass}
+     */
+    private final String resourceClassName;
+
+    /**
+     * Name of {@link #resourceMethod}
+     */
+    private final String resourceMethodName;
+
+    /**
+     * Tags added by the filters in {@link #tagSources}, held by a metric name without a name
+     */
+    private final MetricName resourceTags;
+
+    /**
+     * Filters whose tags have been computed into {@link #resourceTags}
+     */
+    @Getter(AccessLevel.NONE)
+    private final RequestScopedMetricNameFilter[] tagSources;
+
+    public RequestMetricContext(@NonNull Class<?> resourceClass, @NonNull Method resourceMethod, String httpMethod) {
+        this(resourceClass, resourceMethod, httpMethod, MetricName.of(null), NO_TAG_SOURCES);
+    }
+
+    private RequestMetricContext(
+        Class<?> resourceClass,
+        Method resourceMethod,
+        String httpMethod,
+        MetricName resourceTags,
+        RequestScopedMetricNameFilter[] tagSources
+    ) {
+        this.resourceClass = resourceClass;
+        this.resourceMethod = resourceMethod;
+        this.httpMethod = httpMethod;
+        this.resourceClassName = resourceClass.getSimpleName();
+        this.resourceMethodName = resourceMethod.getName();
+        this.resourceTags = resourceTags;
+        this.tagSources = tagSources;
+    }
+
+    /**
+     * Returns a context that also carries the tags that {@code filters} add for this resource method; Filters that are not
+     * {@link RequestScopedMetricNameFilter request-scoped}, or whose tags can't be precomputed, are skipped.
+     *
+     * @param filters
+     *     Filters to precompute tags for, in the order they run
+     *
+     * @return Context with the precomputed tags
+     */
+    public RequestMetricContext withResourceTags(@NonNull Iterable<? extends MetricNameFilter> filters) {
+        Map<String, String> tags = new TreeMap<>();
+        List<RequestScopedMetricNameFilter> sources = new ArrayList<>();
+        for (MetricNameFilter filter : filters) {
+            if (filter instanceof RequestScopedMetricNameFilter) {
+                Map<String, String> filterTags = ((RequestScopedMetricNameFilter) filter).getResourceTags(this);
+                if (filterTags != null) {
+                    tags.putAll(filterTags);
+                    sources.add((RequestScopedMetricNameFilter) filter);
+                }
+            }
+        }
+        if (sources.isEmpty()) {
+            return this;
+        }
+        return new RequestMetricContext(
+            resourceClass,
+            resourceMethod,
+            httpMethod,
+            MetricName.of(null, tags),
+            sources.toArray(NO_TAG_SOURCES)
+        );
+    }
+
+    /**
+     * Checks whether the tags of a filter have been precomputed into {@link #getResourceTags()}
+     *
+     * @param filter
+     *     Filter to check
+     *
+     * @return {@code true} if {@link #getResourceTags()} includes the tags of {@code filter}
+     */
+    boolean hasResourceTags(RequestScopedMetricNameFilter filter) {
+        for (RequestScopedMetricNameFilter tagSource : tagSources) {
+            if (tagSource == filter) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a context for the same resource method handling a request with a different HTTP method, such as a {@code HEAD} request
+     * handled by a {@code GET} method
+     *
+     * @param httpMethod
+     *     HTTP method of the request
+     *
+     * @return Context with the given HTTP method
+     */
+    public RequestMetricContext withHttpMethod(String httpMethod) {
+        if (Objects.equals(this.httpMethod, httpMethod)) {
+            return this;
+        }
+        return new RequestMetricContext(resourceClass, resourceMethod, httpMethod).withResourceTags(Arrays.asList(tagSources));
+    }
+}
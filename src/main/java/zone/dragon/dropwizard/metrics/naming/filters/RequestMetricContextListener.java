@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics.naming.filters;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.glassfish.hk2.api.IterableProvider;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.Value;
+import zone.dragon.dropwizard.metrics.naming.MetricNameFilter;
+
+/**
+ * Publishes the {@link RequestMetricContext} for the duration of each resource method invocation, from
+ * {@link RequestEvent.Type#RESOURCE_METHOD_START RESOURCE_METHOD_START} until
+ * {@link RequestEvent.Type#RESOURCE_METHOD_FINISHED RESOURCE_METHOD_FINISHED}. Contexts for every resource method in the model are built
+ * when the application finishes initializing, so starting a resource method only needs to look up its context.
+ * <p>
+ * Each context also carries the tags that the bound {@link MetricNameFilter}s add for its resource method; Contexts are built for the HTTP
+ * method of each resource method; Jersey switches {@code HEAD} requests it handles with a {@code GET} method over to {@code GET} before the
+ * method starts, so those share the {@code GET} context.
+ */
+@Singleton
+public class RequestMetricContextListener implements ApplicationEventListener {
+    private final RequestEventListener requestListener = this::onRequestEvent;
+
+    @Value(staticConstructor = "of")
+    private static class ContextKey {
+        ResourceMethod resourceMethod;
+
+        String httpMethod;
+    }
+
+    private final ConcurrentMap<ContextKey, RequestMetricContext> contexts = new ConcurrentHashMap<>();
+
+    private final IterableProvider<MetricNameFilter> filters;
+
+    /**
+     * Filters whose tags are precomputed, in the order they run; Read when the application finishes initializing
+     */
+    private volatile List<MetricNameFilter> tagFilters = ImmutableList.of();
+
+    public RequestMetricContextListener() {
+        this(null);
+    }
+
+    @Inject
+    public RequestMetricContextListener(IterableProvider<MetricNameFilter> filters) {
+        this.filters = filters;
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+        if (event.getType() == ApplicationEvent.Type.INITIALIZATION_FINISHED && event.getResourceModel() != null) {
+            if (filters != null) {
+                tagFilters = ImmutableList.copyOf(filters);
+            }
+            addContexts(event.getResourceModel().getResources());
+        }
+    }
+
+    private void addContexts(List<Resource> resources) {
+        for (Resource resource : resources) {
+            for (ResourceMethod resourceMethod : resource.getAllMethods()) {
+                String httpMethod = resourceMethod.getHttpMethod();
+                if (httpMethod == null) {
+                    // Sub-resource locators are never the matched resource method
+                    continue;
+                }
+                contexts.computeIfAbsent(ContextKey.of(resourceMethod, httpMethod), this::createContext);
+            }
+            addContexts(resource.getChildResources());
+        }
+    }
+
+    private RequestMetricContext createContext(ContextKey key) {
+        return createContext(key.getResourceMethod(), key.getHttpMethod());
+    }
+
+    /**
+     * Builds the context for a resource method
+     *
+     * @param resourceMethod
+     *     Resource method being invoked
+     * @param httpMethod
+     *     HTTP method of the request
+     *
+     * @return Context for the resource method, with the tags of the precomputable filters
+     */
+    protected RequestMetricContext createContext(ResourceMethod resourceMethod, String httpMethod) {
+        return RequestMetricContext.of(resourceMethod, httpMethod).withResourceTags(tagFilters);
+    }
+
+    /**
+     * Returns the context for a resource method, building it if the method was not part of the resource model at startup, such as methods
+     * on resources returned by sub-resource locators
+     *
+     * @param resourceMethod
+     *     Resource method being invoked
+     * @param httpMethod
+     *     HTTP method of the request
+     *
+     * @return Context for the resource method
+     */
+    protected RequestMetricContext getContext(ResourceMethod resourceMethod, String httpMethod) {
+        ContextKey key = ContextKey.of(resourceMethod, httpMethod);
+        RequestMetricContext context = contexts.get(key);
+        if (context == null) {
+            context = contexts.computeIfAbsent(key, this::createContext);
+        }
+        return context;
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return requestListener;
+    }
+
+    protected void onRequestEvent(RequestEvent event) {
+        switch (event.getType()) {
+            case RESOURCE_METHOD_START:
+                ResourceMethod resourceMethod = event.getUriInfo().getMatchedResourceMethod();
+                if (resourceMethod != null) {
+                    RequestMetricContext.set(getContext(resourceMethod, event.getContainerRequest().getMethod()));
+                }
+                break;
+            case RESOURCE_METHOD_FINISHED:
+            case FINISHED:
+                RequestMetricContext.clear();
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -27,6 +27,7 @@ package zone.dragon.dropwizard.metrics.naming.filters;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
+import java.util.Map;
 
 import org.glassfish.hk2.api.Injectee;
 import org.glassfish.hk2.api.InstantiationData;
@@ -39,11 +40,14 @@ import lombok.NonNull;
 import zone.dragon.dropwizard.metrics.naming.MetricName;
 import zone.dragon.dropwizard.metrics.naming.MetricNameFilter;
 
-import static com.google.common.base.Preconditions.checkState;
-
 /**
  * Filter that only runs when generating names for request-scoped metrics; Use this to avoid accessing request-scoped providers or modifying
  * metrics when outside of a request scope or the metric is being injected into a non-request-scoped object.
+ * <p>
+ * While a resource method is running, the current request is identified by the {@link RequestMetricContext} published by
+ * {@link RequestMetricContextListener}; Outside of a resource method, the filter falls back to checking the Jersey {@link RequestScope} if
+ * one has been provided. Filters whose tags only depend on the resource method can implement {@link #getResourceTags} so that their tags
+ * are computed once per resource method.
  */
 public abstract class RequestScopedMetricNameFilter implements MetricNameFilter {
     private InstantiationService instantiationService;
@@ -52,26 +56,61 @@ public abstract class RequestScopedMetricNameFilter implements MetricNameFilter
 
     @Override
     public MetricName buildName(MetricName metricName, AnnotatedElement injectionSite, Type metricType) {
-        checkState(instantiationService != null, "instantiationService must be set");
-        checkState(requestScope != null, "requestScope must be set");
-        // Ensure we're inside a request scope
-        RequestContext currentRequestScope = requestScope.suspendCurrent();
-        if (currentRequestScope == null) {
+        // Ensure we're inside a request scope; The context is only available while a resource method runs, so fall back to the scope
+        RequestMetricContext context = RequestMetricContext.current();
+        if (context == null && !isRequestScopeActive()) {
             return metricName;
-        } else {
-            currentRequestScope.release();
         }
         // Verify that if we have injection information, we're not being injected into a singleton or per thread scoped object
-        InstantiationData data = instantiationService.getInstantiationData();
+        InstantiationData data = instantiationService == null ? null : instantiationService.getInstantiationData();
         if (data != null) {
             Injectee injectee = data.getParentInjectee();
             if (injectee != null && injectee.getInjecteeDescriptor().getScopeAnnotation() != RequestScoped.class) {
                 return metricName;
             }
         }
+        if (context != null && context.hasResourceTags(this)) {
+            // The first precomputed filter to run adds the tags of all of them; The others find their tags already present
+            return metricName.withAllTags(context.getResourceTags());
+        }
         return buildRequestScopedName(metricName, injectionSite, metricType);
     }
 
+    /**
+     * Returns the tags this filter adds to every request handled by a resource method, so that they can be computed once when the
+     * application starts instead of on every request; Subclasses that override {@link #buildRequestScopedName} must override this too.
+     *
+     * @param context
+     *     Context describing the resource method and the HTTP method of the request
+     *
+     * @return Tags to add, or {@code null} if this filter's tags depend on more than {@code context}, which is the default
+     */
+    protected Map<String, String> getResourceTags(RequestMetricContext context) {
+        return null;
+    }
+
+    /**
+     * Checks for an active request scope without a {@link RequestMetricContext}, such as while request-scoped resources are being created
+     *
+     * @return {@code true} if the Jersey request scope is active on the current thread
+     */
+    protected boolean isRequestScopeActive() {
+        if (requestScope == null) {
+            return false;
+        }
+        RequestContext currentRequestScope = requestScope.suspendCurrent();
+        if (currentRequestScope == null) {
+            return false;
+        }
+        currentRequestScope.release();
+        return true;
+    }
+
+    @Override
+    public boolean isRequestScoped() {
+        return true;
+    }
+
     public void setResourceInfoProvider(@NonNull InstantiationService instantiationService) {
         this.instantiationService = instantiationService;
     }
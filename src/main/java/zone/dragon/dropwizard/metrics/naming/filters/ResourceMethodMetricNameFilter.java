@@ -27,6 +27,7 @@ package zone.dragon.dropwizard.metrics.naming.filters;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
+import java.util.Map;
 
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
@@ -34,6 +35,8 @@ import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.container.ResourceInfo;
 
+import com.google.common.collect.ImmutableMap;
+
 import lombok.NonNull;
 import zone.dragon.dropwizard.metrics.naming.MetricName;
 import zone.dragon.dropwizard.metrics.naming.MetricNameFilter;
@@ -73,12 +76,21 @@ public class ResourceMethodMetricNameFilter extends RequestScopedMetricNameFilte
 
     @Override
     public MetricName buildRequestScopedName(MetricName metricName, AnnotatedElement injectionSite, Type metricType) {
+        RequestMetricContext context = RequestMetricContext.current();
+        if (context != null) {
+            return metricName.withTag(tagName, context.getResourceMethodName());
+        }
         checkState(resourceInfoProvider != null, "resourceInfo must be set");
         ResourceInfo resourceInfo = resourceInfoProvider.get();
         if (resourceInfo == null || resourceInfo.getResourceMethod() == null) {
             return metricName;
         }
-        return metricName.addTag(tagName, resourceInfo.getResourceMethod().getName());
+        return metricName.withTag(tagName, resourceInfo.getResourceMethod().getName());
+    }
+
+    @Override
+    protected Map<String, String> getResourceTags(RequestMetricContext context) {
+        return ImmutableMap.of(tagName, context.getResourceMethodName());
     }
 
     public void setResourceInfoProvider(@NonNull Provider<ResourceInfo> resourceInfoProvider) {
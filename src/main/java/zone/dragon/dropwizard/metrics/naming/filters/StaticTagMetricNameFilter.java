@@ -57,6 +57,11 @@ public class StaticTagMetricNameFilter implements MetricNameFilter {
 
     @Override
     public MetricName buildName(MetricName metricName, AnnotatedElement injectionSite, Type metricType) {
-        return metricName.addTag(tagName, tagValue);
+        return metricName.withTag(tagName, tagValue);
+    }
+
+    @Override
+    public boolean isRequestScoped() {
+        return false;
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.task;
+
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.dropwizard.servlets.tasks.Task;
+import lombok.NonNull;
+import zone.dragon.dropwizard.StartupProfiler;
+import zone.dragon.dropwizard.StartupProfiler.Category;
+import zone.dragon.dropwizard.StartupProfiler.Entry;
+
+/**
+ * Admin task that reports the {@link StartupProfiler startup timeline} as JSON, with the total time spent per category followed by every
+ * recorded step, most expensive first.
+ */
+public class StartupProfileTask extends Task {
+    public static final String NAME = "startup-profile";
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final StartupProfiler profiler;
+
+    private final ObjectMapper objectMapper;
+
+    public StartupProfileTask(@NonNull StartupProfiler profiler, @NonNull ObjectMapper objectMapper) {
+        super(NAME);
+        this.profiler = profiler;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void execute(Map<String, List<String>> parameters, PrintWriter output) throws Exception {
+        List<Entry> timeline = profiler.getTimeline();
+        Map<Category, Double> totals = new EnumMap<>(Category.class);
+        for (Entry entry : timeline) {
+            totals.merge(entry.getCategory(), entry.getDurationNanos() / NANOS_PER_MILLI, Double::sum);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("totalMillis", totals);
+        report.put("timeline", timeline.stream().map(entry -> {
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("category", entry.getCategory());
+            step.put("name", entry.getName());
+            step.put("millis", entry.getDurationNanos() / NANOS_PER_MILLI);
+            return step;
+        }).collect(Collectors.toList()));
+        output.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+}
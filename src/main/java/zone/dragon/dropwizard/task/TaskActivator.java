@@ -25,17 +25,28 @@
 
 package zone.dragon.dropwizard.task;
 
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
 import jakarta.inject.Inject;
 
 import org.glassfish.hk2.api.ServiceLocator;
 
+import com.google.common.base.Suppliers;
+
 import io.dropwizard.core.setup.Environment;
+import io.dropwizard.servlets.tasks.Task;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import zone.dragon.dropwizard.ComponentActivator;
 
 /**
- * Activates and initializes all {@link io.dropwizard.servlets.tasks.Task tasks} registered with Jersey and adds them to DropWizard.
+ * Activates and initializes all {@link Task tasks} registered with Jersey and adds them to DropWizard. With
+ * {@link #LAZY_ACTIVATION lazy activation}, tasks named with {@link jakarta.inject.Named @Named} are only created when they are first
+ * executed; The {@code @Named} value is used as the task name, and the first execution fails if it does not match the name the task passes
+ * to its constructor.
  */
 @Slf4j
 public class TaskActivator extends ComponentActivator {
@@ -47,11 +58,59 @@ public class TaskActivator extends ComponentActivator {
         this.environment = environment;
     }
 
+    /**
+     * Checks whether a task's {@code execute} method has annotations, such as {@link com.codahale.metrics.annotation.Timed @Timed}, that
+     * DropWizard reads from the registered task
+     */
+    private static boolean hasAnnotatedExecute(Class<?> implementation) {
+        try {
+            return implementation.getMethod("execute", Map.class, PrintWriter.class).getAnnotations().length > 0;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Checks whether a task declares its own response content type, which DropWizard reads before the task is executed
+     */
+    private static boolean hasResponseContentType(Class<?> implementation) {
+        try {
+            return implementation.getMethod("getResponseContentType").getDeclaringClass() != Task.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
     @Override
     protected void activateComponents() {
         activate(InjectableTask.class, (name, component) -> {
             log.info("Registering task {}", component.getName());
             environment.admin().addTask(component);
+        }, (name, implementation, component) -> {
+            // A task's name is only known before it is created if it is also given by @Named
+            if (name == null || hasAnnotatedExecute(implementation) || hasResponseContentType(implementation)) {
+                return false;
+            }
+            log.info("Registering lazy task {}", name);
+            Supplier<InjectableTask> task = Suppliers.memoize(() -> {
+                InjectableTask created = component.get();
+                if (!name.equals(created.getName())) {
+                    throw new IllegalStateException(String.format(
+                        "Task %s was registered lazily as %s, but is named %s; Make its @Named value match its name",
+                        implementation.getName(),
+                        name,
+                        created.getName()
+                    ));
+                }
+                return created;
+            });
+            environment.admin().addTask(new Task(name) {
+                @Override
+                public void execute(Map<String, List<String>> parameters, PrintWriter output) throws Exception {
+                    task.get().execute(parameters, output);
+                }
+            });
+            return true;
         });
     }
 }
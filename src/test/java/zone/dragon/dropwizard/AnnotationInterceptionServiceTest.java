@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import jakarta.inject.Singleton;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.api.ServiceLocatorFactory;
+import org.glassfish.hk2.api.TypeLiteral;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnnotationInterceptionServiceTest {
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Prefixed {
+        String value();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Suffixed {
+        String value();
+    }
+
+    public static class PrefixFactory implements AnnotatedMethodInterceptorFactory<Prefixed> {
+        @Override
+        public MethodInterceptor provide(Method method, Prefixed annotation) {
+            return invocation -> annotation.value() + invocation.proceed();
+        }
+    }
+
+    public static class SuffixFactory implements AnnotatedMethodInterceptorFactory<Suffixed> {
+        @Override
+        public MethodInterceptor provide(Method method, Suffixed annotation) {
+            return invocation -> invocation.proceed() + annotation.value();
+        }
+    }
+
+    @Prefixed("class-")
+    public static class ClassPrefixed {
+        public String value() {
+            return "value";
+        }
+
+        @Prefixed("method-")
+        public String overridden() {
+            return "value";
+        }
+    }
+
+    public static class MethodSuffixed {
+        @Suffixed("-method")
+        public String value() {
+            return "value";
+        }
+
+        public String plain() {
+            return "value";
+        }
+    }
+
+    @Prefixed("base-")
+    public static class PrefixedBase {
+        public String value() {
+            return "value";
+        }
+    }
+
+    public static class InheritsPrefixedBase extends PrefixedBase {
+        public String own() {
+            return "value";
+        }
+    }
+
+    private ServiceLocator locator;
+
+    @BeforeEach
+    public void setUp() {
+        // A fresh locator per test, since ServiceLocatorUtilities.bind(Binder...) reuses the same named locator
+        locator = ServiceLocatorFactory.getInstance().create(null);
+        ServiceLocatorUtilities.bind(locator, new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(PrefixFactory.class).to(new TypeLiteral<AnnotatedMethodInterceptorFactory<Prefixed>>() {}).in(Singleton.class);
+                bindAsContract(ClassPrefixed.class);
+                bindAsContract(MethodSuffixed.class);
+                bindAsContract(InheritsPrefixedBase.class);
+            }
+        });
+        ServiceLocatorUtilities.addClasses(locator, true, AnnotationInterceptionService.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        locator.shutdown();
+    }
+
+    @Test
+    public void testClassAnnotationIntercepted() {
+        assertThat(locator.getService(ClassPrefixed.class).value()).isEqualTo("class-value");
+    }
+
+    @Test
+    public void testMethodAnnotationOverridesClassAnnotation() {
+        assertThat(locator.getService(ClassPrefixed.class).overridden()).isEqualTo("method-value");
+    }
+
+    @Test
+    public void testUnannotatedMethodNotIntercepted() {
+        assertThat(locator.getService(MethodSuffixed.class).value()).isEqualTo("value");
+        assertThat(locator.getService(MethodSuffixed.class).plain()).isEqualTo("value");
+    }
+
+    @Test
+    public void testServiceWithoutInterceptableAnnotationsNotProxied() {
+        assertThat(locator.getService(MethodSuffixed.class).getClass()).isEqualTo(MethodSuffixed.class);
+        assertThat(locator.getService(ClassPrefixed.class).getClass()).isNotEqualTo(ClassPrefixed.class);
+    }
+
+    @Test
+    public void testSuperclassAnnotationInterceptsInheritedMethods() {
+        // @Prefixed is not @Inherited, so only the superclass carries it
+        InheritsPrefixedBase service = locator.getService(InheritsPrefixedBase.class);
+        assertThat(service.getClass()).isNotEqualTo(InheritsPrefixedBase.class);
+        assertThat(service.value()).isEqualTo("base-value");
+        assertThat(service.own()).isEqualTo("value");
+    }
+
+    @Test
+    public void testFactoryAddedLater() {
+        assertThat(locator.getService(ClassPrefixed.class).value()).isEqualTo("class-value");
+        ServiceLocatorUtilities.bind(locator, new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(SuffixFactory.class).to(new TypeLiteral<AnnotatedMethodInterceptorFactory<Suffixed>>() {}).in(Singleton.class);
+            }
+        });
+        assertThat(locator.getService(MethodSuffixed.class).value()).isEqualTo("value-method");
+    }
+}
@@ -26,6 +26,7 @@
 package zone.dragon.dropwizard;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.validation.Validator;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -36,6 +37,7 @@ import jakarta.ws.rs.core.Feature;
 import jakarta.ws.rs.core.FeatureContext;
 
 import org.eclipse.jetty.server.Server;
+import org.glassfish.hk2.api.Factory;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 import org.glassfish.jersey.client.JerseyClientBuilder;
@@ -100,6 +102,18 @@ public class HK2BundleTest {
         }
     }
 
+    public static class NamedIntegerFactory implements Factory<Integer> {
+        @Override
+        @Named("factoryInteger")
+        public Integer provide() {
+            return 42;
+        }
+
+        @Override
+        public void dispose(Integer instance) {
+        }
+    }
+
     public static class HK2BundleApp extends Application<TestConfig> {
         @Override
         public void initialize(Bootstrap<TestConfig> bootstrap) {
@@ -107,6 +121,7 @@ public class HK2BundleTest {
             bootstrap.addBundle(new BundleWithBinder());
             bundle.bind("test1").to(String.class).named("parentBinding");
             bundle.bindAsContract(TestService.class).in(RequestScoped.class);
+            bundle.autoBind(new NamedIntegerFactory());
         }
 
         @Override
@@ -160,6 +175,11 @@ public class HK2BundleTest {
         assertThat(jerseyLocator.getService(Environment.class)).isSameAs(RULE.getEnvironment());
     }
 
+    @Test
+    public void testFactoryConstantBound() {
+        assertThat(jerseyLocator.getService(Integer.class, "factoryInteger")).isEqualTo(42);
+    }
+
     @Test
     public void testHealthCheckRegistryBound() {
         assertThat(jerseyLocator.getService(HealthCheckRegistry.class)).isSameAs(RULE.getEnvironment().healthChecks());
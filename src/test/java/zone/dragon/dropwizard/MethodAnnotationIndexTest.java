@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MethodAnnotationIndexTest {
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Marked {}
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Other {}
+
+    @Marked
+    public static class Base {
+        @Marked
+        public void inherited() {}
+
+        @Marked
+        public void overridden() {}
+
+        @Marked
+        public void remarked() {}
+
+        @Marked
+        private void hidden() {}
+
+        public void plain() {}
+    }
+
+    public static class Derived extends Base {
+        @Override
+        public void overridden() {}
+
+        @Marked
+        @Override
+        public void remarked() {}
+
+        @Marked
+        @Other
+        public void own() {}
+    }
+
+    private static Method getMethod(Class<?> type, String name) throws NoSuchMethodException {
+        return type.getDeclaredMethod(name);
+    }
+
+    @Test
+    public void testMethodAnnotationsIndexed() throws NoSuchMethodException {
+        assertThat(MethodAnnotationIndex.of(Base.class).getMethods(Marked.class)).containsExactlyInAnyOrder(
+            getMethod(Base.class, "inherited"),
+            getMethod(Base.class, "overridden"),
+            getMethod(Base.class, "remarked"),
+            getMethod(Base.class, "hidden")
+        );
+    }
+
+    @Test
+    public void testClassAnnotationsNotIndexed() throws NoSuchMethodException {
+        // Only the method annotations count, so the class-level @Marked doesn't pull in unannotated methods
+        assertThat(MethodAnnotationIndex.of(Base.class).getMethods(Marked.class)).doesNotContain(getMethod(Base.class, "plain"));
+    }
+
+    @Test
+    public void testInheritedAndOverriddenMethods() throws NoSuchMethodException {
+        // Overrides replace the inherited method, so an override without the annotation is not indexed
+        assertThat(MethodAnnotationIndex.of(Derived.class).getMethods(Marked.class)).containsExactlyInAnyOrder(
+            getMethod(Base.class, "inherited"),
+            getMethod(Base.class, "hidden"),
+            getMethod(Derived.class, "remarked"),
+            getMethod(Derived.class, "own")
+        );
+    }
+
+    @Test
+    public void testMethodsIndexedByEachAnnotation() throws NoSuchMethodException {
+        MethodAnnotationIndex index = MethodAnnotationIndex.of(Derived.class);
+        assertThat(index.getMethods(Other.class)).containsExactly(getMethod(Derived.class, "own"));
+        assertThat(index.getMethods(Override.class)).isEmpty();
+    }
+
+    @Test
+    public void testIndexReusedForRepeatedLookups() {
+        MethodAnnotationIndex index = MethodAnnotationIndex.of(Derived.class);
+        assertThat(MethodAnnotationIndex.of(Derived.class)).isSameAs(index);
+        assertThat(index.getMethods(Marked.class)).isSameAs(index.getMethods(Marked.class));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jakarta.inject.Inject;
+
+import org.glassfish.hk2.api.Immediate;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.api.ServiceLocatorFactory;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Bryan Harclerode
+ */
+public class ParallelImmediateStarterTest {
+    private static final List<String> CREATED = new CopyOnWriteArrayList<>();
+
+    @Immediate
+    public static class Database {
+        public Database() throws InterruptedException {
+            Thread.sleep(100);
+            CREATED.add("database");
+        }
+    }
+
+    @Immediate
+    public static class Cache {
+        @Inject
+        public Cache(Database database) {
+            CREATED.add("cache");
+        }
+    }
+
+    @Immediate
+    public static class Slow {
+        public Slow() throws InterruptedException {
+            Thread.sleep(1000);
+        }
+    }
+
+    @Immediate
+    public static class AfterSlow {
+        @Inject
+        public AfterSlow(Slow slow) {
+            CREATED.add("afterSlow");
+        }
+    }
+
+    private ServiceLocator locator;
+
+    @BeforeEach
+    public void setUp() {
+        CREATED.clear();
+        locator = ServiceLocatorFactory.getInstance().create(null);
+        ServiceLocatorUtilities.enableImmediateScopeSuspended(locator);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        locator.shutdown();
+    }
+
+    @Test
+    public void testCreatesDependenciesFirst() {
+        ServiceLocatorUtilities.addClasses(locator, Cache.class, Database.class);
+        new ParallelImmediateStarter(locator, 4, Duration.ofSeconds(5)).start();
+        assertThat(CREATED).containsExactly("database", "cache");
+    }
+
+    @Test
+    public void testFailsOnTimeout() {
+        ServiceLocatorUtilities.addClasses(locator, Slow.class);
+        assertThatThrownBy(() -> new ParallelImmediateStarter(locator, 1, Duration.ofMillis(50)).start()).isInstanceOf(
+            IllegalStateException.class
+        );
+    }
+
+    @Test
+    public void testTimeoutCancelsRemainingServices() throws InterruptedException {
+        ServiceLocatorUtilities.addClasses(locator, Slow.class, AfterSlow.class);
+        assertThatThrownBy(() -> new ParallelImmediateStarter(locator, 1, Duration.ofMillis(50)).start()).isInstanceOf(
+            IllegalStateException.class
+        );
+        // Long enough for the slow service to have finished if it had not been interrupted
+        Thread.sleep(1200);
+        assertThat(CREATED).doesNotContain("afterSlow");
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import jakarta.inject.Inject;
+
+import org.glassfish.hk2.api.DescriptorVisibility;
+import org.glassfish.hk2.api.Injectee;
+import org.glassfish.hk2.api.JustInTimeInjectionResolver;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.api.ServiceLocatorFactory;
+import org.glassfish.hk2.api.Visibility;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Bryan Harclerode
+ */
+public class ServiceLocatorBridgeTest {
+    public static class OnDemandService {}
+
+    public static class MissingService {}
+
+    @Visibility(DescriptorVisibility.LOCAL)
+    public static class OnDemandResolver implements JustInTimeInjectionResolver {
+        @Inject
+        private ServiceLocator locator;
+
+        @Override
+        public boolean justInTimeResolution(Injectee failedInjectionPoint) {
+            if (failedInjectionPoint.getRequiredType() == OnDemandService.class) {
+                ServiceLocatorUtilities.addClasses(locator, OnDemandService.class);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private ServiceLocator local;
+
+    private ServiceLocator remote;
+
+    private ServiceLocatorBridge bridge;
+
+    @BeforeEach
+    public void setUp() {
+        local = ServiceLocatorFactory.getInstance().create(null);
+        remote = ServiceLocatorFactory.getInstance().create(null);
+        ServiceLocatorUtilities.addClasses(remote, OnDemandResolver.class);
+        bridge = ServiceLocatorBridge.bridge(local, remote, new MetricRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        local.shutdown();
+        remote.shutdown();
+    }
+
+    @Test
+    public void testResolvesOnDemandServicesAcrossBridge() {
+        assertThat(local.getService(OnDemandService.class)).isNotNull();
+        assertThat(bridge.getMisses().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCachesNegativeResolutions() {
+        assertThat(local.getService(MissingService.class)).isNull();
+        assertThat(local.getService(MissingService.class)).isNull();
+        assertThat(bridge.getMisses().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConfigurationChangeInvalidatesCache() {
+        assertThat(local.getService(MissingService.class)).isNull();
+        ServiceLocatorUtilities.addClasses(remote, MissingService.class);
+        assertThat(local.getService(MissingService.class)).isNotNull();
+    }
+}
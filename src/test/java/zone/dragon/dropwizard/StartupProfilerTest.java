@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard;
+
+import org.glassfish.hk2.api.DynamicConfiguration;
+import org.glassfish.hk2.api.InstanceLifecycleListener;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.api.ServiceLocatorFactory;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import zone.dragon.dropwizard.StartupProfiler.Category;
+import zone.dragon.dropwizard.StartupProfiler.Entry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Bryan Harclerode
+ */
+public class StartupProfilerTest {
+    public static class ProfiledService {}
+
+    @Test
+    public void testTimelineIsSortedByCost() {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.enable();
+        long now = System.nanoTime();
+        profiler.recordSince(Category.BINDING, "cheap", now);
+        profiler.recordSince(Category.ACTIVATION, "expensive", now - 1_000_000_000L);
+        assertThat(profiler.getTimeline()).extracting(Entry::getName).containsExactly("expensive", "cheap");
+    }
+
+    @Test
+    public void testRecordsNothingWhenNotEnabled() {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.recordSince(Category.BINDING, "binding", System.nanoTime());
+        profiler.finish();
+        assertThat(profiler.getTimeline()).isEmpty();
+    }
+
+    @Test
+    public void testPublishesRecordedSteps() {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.enable();
+        profiler.recordSince(Category.BINDING, "binding", System.nanoTime());
+        MetricRegistry registry = new MetricRegistry();
+        profiler.publishTo(registry);
+        profiler.recordSince(Category.BINDING, "another", System.nanoTime());
+        assertThat(registry.timer(MetricRegistry.name(StartupProfiler.class, "binding")).getCount()).isEqualTo(2);
+        assertThat(registry.getTimers()).containsOnlyKeys(MetricRegistry.name(StartupProfiler.class, "binding"));
+    }
+
+    @Test
+    public void testTimesServiceCreation() {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.enable();
+        ServiceLocator locator = ServiceLocatorFactory.getInstance().create(null);
+        try {
+            installCreationListener(profiler, locator);
+            ServiceLocatorUtilities.addClasses(locator, ProfiledService.class);
+            locator.getService(ProfiledService.class);
+            assertThat(profiler.getTimeline()).anyMatch(
+                entry -> entry.getCategory() == Category.SERVICE_CREATION && entry.getName().equals(ProfiledService.class.getName())
+            );
+        } finally {
+            locator.shutdown();
+        }
+    }
+
+    @Test
+    public void testCreationListenerRemovedWhenFinished() {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.enable();
+        ServiceLocator locator = ServiceLocatorFactory.getInstance().create(null);
+        try {
+            installCreationListener(profiler, locator);
+            assertThat(locator.getAllServices(InstanceLifecycleListener.class)).isNotEmpty();
+            profiler.finish();
+            assertThat(locator.getAllServices(InstanceLifecycleListener.class)).isEmpty();
+            ServiceLocatorUtilities.addClasses(locator, ProfiledService.class);
+            locator.getService(ProfiledService.class);
+            assertThat(profiler.getTimeline()).noneMatch(entry -> entry.getName().equals(ProfiledService.class.getName()));
+        } finally {
+            locator.shutdown();
+        }
+    }
+
+    private static void installCreationListener(StartupProfiler profiler, ServiceLocator locator) {
+        DynamicConfiguration config = ServiceLocatorUtilities.createDynamicConfiguration(locator);
+        profiler.installCreationListener(locator, config);
+        config.commit();
+    }
+}
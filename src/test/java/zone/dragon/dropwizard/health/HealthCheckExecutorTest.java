@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.health;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.health.HealthCheck.Result;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import com.codahale.metrics.health.annotation.Async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HealthCheckExecutorTest {
+    private static class SlowHealthCheck extends InjectableHealthCheck {
+        private final AtomicInteger runs = new AtomicInteger();
+
+        @Override
+        protected Result check() throws Exception {
+            runs.incrementAndGet();
+            Thread.sleep(300);
+            return Result.healthy();
+        }
+    }
+
+    @HealthCheckTimeout(value = 50, unit = TimeUnit.MILLISECONDS)
+    private static class HungHealthCheck extends InjectableHealthCheck {
+        @Override
+        protected Result check() throws Exception {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return Result.healthy();
+        }
+    }
+
+    @HealthCheckSchedule(interval = 1, jitter = 1, unit = TimeUnit.HOURS)
+    private static class ScheduledHealthCheck extends InjectableHealthCheck {
+        private final AtomicInteger runs = new AtomicInteger();
+
+        @Override
+        protected Result check() {
+            return Result.builder().healthy().withMessage("run %d", runs.incrementAndGet()).withDetail("key", "value").build();
+        }
+    }
+
+    @Async(period = 1, unit = TimeUnit.HOURS)
+    private static class AsyncHealthCheck extends InjectableHealthCheck {
+        @Override
+        protected Result check() {
+            return Result.healthy();
+        }
+    }
+
+    private final HealthCheckExecutor executor = new HealthCheckExecutor();
+
+    private final HealthCheckRegistry registry = new HealthCheckRegistry();
+
+    @AfterEach
+    public void close() {
+        executor.close();
+    }
+
+    @Test
+    public void testChecksRunInParallel() {
+        SlowHealthCheck first = new SlowHealthCheck();
+        SlowHealthCheck second = new SlowHealthCheck();
+        registry.register("first", executor.wrap(first));
+        registry.register("second", executor.wrap(second));
+        long start = System.nanoTime();
+        SortedMap<String, Result> results = registry.runHealthChecks(executor.getRegistryExecutor());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(results.values()).allMatch(Result::isHealthy);
+        assertThat(elapsed).isLessThan(550);
+        assertThat(first.runs).hasValue(1);
+        assertThat(second.runs).hasValue(1);
+    }
+
+    @Test
+    public void testSingleCheckRunsAlone() {
+        SlowHealthCheck first = new SlowHealthCheck();
+        SlowHealthCheck second = new SlowHealthCheck();
+        registry.register("first", executor.wrap(first));
+        registry.register("second", executor.wrap(second));
+        registry.runHealthCheck("first");
+        registry.runHealthCheck("first");
+        assertThat(first.runs).hasValue(2);
+        assertThat(second.runs).hasValue(0);
+    }
+
+    @Test
+    public void testAsyncCheckNotWrapped() {
+        InjectableHealthCheck check = new AsyncHealthCheck();
+        assertThat(executor.wrap(check)).isSameAs(check);
+    }
+
+    @Test
+    public void testTimedOutCheckUnhealthy() {
+        registry.register("hung", executor.wrap(new HungHealthCheck()));
+        Result result = registry.runHealthCheck("hung");
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Timed out after 50 ms");
+    }
+
+    @Test
+    public void testScheduledCheckServesCachedResult() {
+        ScheduledHealthCheck check = new ScheduledHealthCheck();
+        registry.register("scheduled", executor.wrap(check));
+        registry.runHealthCheck("scheduled");
+        Result second = registry.runHealthCheck("scheduled");
+        assertThat(second.isHealthy()).isTrue();
+        assertThat(second.getMessage()).startsWith("run ");
+        assertThat(second.getDetails()).containsEntry("key", "value").containsEntry("stale", false).containsKeys("checkedAt", "ageMillis");
+        // At most one background run and one run for the first request
+        assertThat(check.runs.get()).isBetween(1, 2);
+    }
+
+    @Test
+    public void testResultPassedThrough() {
+        registry.register("failing", executor.wrap(new InjectableHealthCheck() {
+            @Override
+            protected Result check() {
+                return Result.unhealthy("broken");
+            }
+        }));
+        assertThat(registry.runHealthCheck("failing").getMessage()).isEqualTo("broken");
+    }
+}
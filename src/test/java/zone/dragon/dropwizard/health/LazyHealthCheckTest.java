@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.health;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.health.HealthCheck.Result;
+import com.google.common.base.Suppliers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Bryan Harclerode
+ */
+public class LazyHealthCheckTest {
+    public static class ExpensiveHealthCheck extends InjectableHealthCheck {
+        @Override
+        protected Result check() {
+            return Result.healthy("ready");
+        }
+    }
+
+    @Test
+    public void testCreatesCheckOnFirstRun() {
+        AtomicInteger created = new AtomicInteger();
+        LazyHealthCheck check = new LazyHealthCheck(ExpensiveHealthCheck.class, Suppliers.memoize(() -> {
+            created.incrementAndGet();
+            return new ExpensiveHealthCheck();
+        }));
+        assertThat(created).hasValue(0);
+        assertThat(check.execute().getMessage()).isEqualTo("ready");
+        assertThat(check.execute().isHealthy()).isTrue();
+        assertThat(created).hasValue(1);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.lifecycle;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.dropwizard.lifecycle.JettyManaged;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelLifeCycleGroupTest {
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    private class Component implements InjectableManaged {
+        private final String name;
+
+        private final long delay;
+
+        private Component(String name, long delay) {
+            this.name = name;
+            this.delay = delay;
+        }
+
+        @Override
+        public void start() throws Exception {
+            Thread.sleep(delay);
+            events.add("start " + name);
+        }
+
+        @Override
+        public void stop() {
+            events.add("stop " + name);
+        }
+    }
+
+    private class Pool extends Component {
+        private Pool(String name) {
+            super(name, 200);
+        }
+    }
+
+    @StartAfter(Pool.class)
+    private class Warmup extends Component {
+        private Warmup() {
+            super("warmup", 0);
+        }
+    }
+
+    @StartAfter(Failing.class)
+    private class Failing extends Component {
+        private Failing() {
+            super("failing", 0);
+        }
+
+        @Override
+        public void start() throws Exception {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    private void add(ParallelLifeCycleGroup group, Component component) {
+        group.add(null, component, new JettyManaged(component));
+    }
+
+    @Test
+    public void testIndependentComponentsStartInParallel() throws Exception {
+        ParallelLifeCycleGroup group = new ParallelLifeCycleGroup();
+        add(group, new Pool("first"));
+        add(group, new Pool("second"));
+        add(group, new Pool("third"));
+        long start = System.nanoTime();
+        group.start();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(550);
+        assertThat(events).containsExactlyInAnyOrder("start first", "start second", "start third");
+        group.stop();
+    }
+
+    @Test
+    public void testDependenciesRespected() throws Exception {
+        ParallelLifeCycleGroup group = new ParallelLifeCycleGroup();
+        add(group, new Warmup());
+        add(group, new Pool("first"));
+        add(group, new Pool("second"));
+        group.start();
+        assertThat(events).hasSize(3).endsWith("start warmup");
+        events.clear();
+        group.stop();
+        assertThat(events).hasSize(3).startsWith("stop warmup");
+    }
+
+    @Test
+    public void testCircularDependenciesRejected() {
+        ParallelLifeCycleGroup group = new ParallelLifeCycleGroup();
+        add(group, new Failing());
+        add(group, new Failing());
+        assertThatThrownBy(group::start).isInstanceOf(IllegalStateException.class).hasMessageContaining("Circular");
+    }
+
+    @Test
+    public void testFailureStopsStartedComponents() {
+        ParallelLifeCycleGroup group = new ParallelLifeCycleGroup();
+        add(group, new Pool("first"));
+        add(group, new Component("broken", 0) {
+            @Override
+            public void start() {
+                throw new IllegalArgumentException("broken");
+            }
+        });
+        assertThatThrownBy(group::start).isInstanceOf(IllegalArgumentException.class);
+        assertThat(events).containsExactly("start first", "stop first");
+    }
+}
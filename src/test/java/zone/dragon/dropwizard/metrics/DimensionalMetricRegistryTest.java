@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DimensionalMetricRegistryTest {
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    private final DimensionalMetricRegistry registry = new DimensionalMetricRegistry(metricRegistry, null);
+
+    private final MetricName name = MetricName.of("requests").withTag("method", "GET");
+
+    @Test
+    public void testMetricsKeyedByName() {
+        Timer timer = registry.timer(name);
+        assertThat(registry.timer(MetricName.of("requests").withTag("method", "GET"))).isSameAs(timer);
+        assertThat(registry.timer(name.withTag("method", "PUT"))).isNotSameAs(timer);
+        assertThat(registry.getMetrics()).containsEntry(name, timer);
+    }
+
+    @Test
+    public void testMetricsExposedWithFlatNames() {
+        Counter counter = registry.counter(name);
+        assertThat(metricRegistry.getCounters()).containsEntry("requests{method=GET}", counter);
+        assertThat(registry.getMetricName("requests{method=GET}")).isEqualTo(name);
+    }
+
+    @Test
+    public void testRegisteredMetricsExposedWithFlatNames() {
+        Gauge<Integer> gauge = () -> 1;
+        registry.register(name, gauge);
+        assertThat(metricRegistry.getGauges()).containsEntry("requests{method=GET}", gauge);
+        assertThat(registry.getMetrics()).containsEntry(name, gauge);
+    }
+
+    @Test
+    public void testFailedRegistrationLeavesNoMapping() {
+        metricRegistry.counter("requests{method=GET}");
+        assertThatThrownBy(() -> registry.register(name, new Counter())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.getMetrics()).isEmpty();
+        assertThat(registry.getMetricName("requests{method=GET}")).isNull();
+        assertThat(registry.getFlatName(name)).isNull();
+    }
+
+    @Test
+    public void testRemovalFromFlatRegistry() {
+        Counter counter = registry.counter(name);
+        metricRegistry.remove("requests{method=GET}");
+        assertThat(registry.getMetrics()).isEmpty();
+        assertThat(registry.getMetricName("requests{method=GET}")).isNull();
+        assertThat(registry.counter(name)).isNotSameAs(counter);
+    }
+
+    @Test
+    public void testRemoval() {
+        registry.meter(name);
+        assertThat(registry.remove(name)).isTrue();
+        assertThat(registry.getMetrics()).isEmpty();
+        assertThat(metricRegistry.getMetrics()).isEmpty();
+    }
+
+    @Test
+    public void testDifferentTypeRejected() {
+        registry.counter(name);
+        assertThatThrownBy(() -> registry.timer(name)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
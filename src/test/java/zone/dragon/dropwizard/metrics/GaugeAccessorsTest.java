@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.Gauge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GaugeAccessorsTest {
+    public static class GaugeSource {
+        private static String staticValue() {
+            return "static";
+        }
+
+        public long longValue() {
+            return 5L;
+        }
+
+        public double doubleValue() {
+            return 1.5;
+        }
+
+        public int intValue() {
+            return 3;
+        }
+
+        private String stringValue() {
+            return "value";
+        }
+
+        public String failingValue() {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    private final GaugeSource source = new GaugeSource();
+
+    private Gauge<?> gauge(String methodName) throws NoSuchMethodException {
+        return GaugeAccessors.createGauge(source, GaugeSource.class.getDeclaredMethod(methodName));
+    }
+
+    @Test
+    public void testLongGauge() throws NoSuchMethodException {
+        Gauge<?> gauge = gauge("longValue");
+        assertThat(gauge).isInstanceOf(LongGauge.class);
+        assertThat(((LongGauge) gauge).getLongValue()).isEqualTo(5L);
+        assertThat(gauge.getValue()).isEqualTo(5L);
+    }
+
+    @Test
+    public void testDoubleGauge() throws NoSuchMethodException {
+        Gauge<?> gauge = gauge("doubleValue");
+        assertThat(gauge).isInstanceOf(DoubleGauge.class);
+        assertThat(((DoubleGauge) gauge).getDoubleValue()).isEqualTo(1.5);
+    }
+
+    @Test
+    public void testIntGauge() throws NoSuchMethodException {
+        Gauge<?> gauge = gauge("intValue");
+        assertThat(gauge).isInstanceOf(IntGauge.class);
+        assertThat(((IntGauge) gauge).getIntValue()).isEqualTo(3);
+    }
+
+    @Test
+    public void testPrivateObjectGauge() throws NoSuchMethodException {
+        assertThat(gauge("stringValue").getValue()).isEqualTo("value");
+    }
+
+    @Test
+    public void testStaticGauge() throws NoSuchMethodException {
+        assertThat(gauge("staticValue").getValue()).isEqualTo("static");
+    }
+
+    @Test
+    public void testExceptionWrapped() throws NoSuchMethodException {
+        Gauge<?> gauge = gauge("failingValue");
+        assertThatThrownBy(gauge::getValue)
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("failingValue")
+            .hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LogLinearReservoirTest {
+    private static class ManualClock extends Clock {
+        private long tick;
+
+        @Override
+        public long getTick() {
+            return tick;
+        }
+    }
+
+    private final ManualClock clock = new ManualClock();
+
+    private final LogLinearReservoir reservoir = new LogLinearReservoir(TimeUnit.MINUTES.toNanos(1), 2, 1, TimeUnit.MINUTES, clock);
+
+    @Test
+    public void testSmallValuesExact() {
+        for (int i = 1; i <= 100; i++) {
+            reservoir.update(i);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isEqualTo(100);
+        assertThat(snapshot.getMin()).isEqualTo(1);
+        assertThat(snapshot.getMax()).isEqualTo(100);
+        assertThat(snapshot.getMedian()).isEqualTo(50);
+        assertThat(snapshot.get99thPercentile()).isEqualTo(99);
+        assertThat(snapshot.getMean()).isEqualTo(50.5);
+    }
+
+    @Test
+    public void testLargeValuesWithinPrecision() {
+        for (long i = 1; i <= 10_000; i++) {
+            reservoir.update(i * 1_000_000L);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.getValue(0.999)).isCloseTo(9_990_000_000.0, within(9_990_000_000.0 / 100));
+        assertThat(snapshot.getMax()).isGreaterThanOrEqualTo(10_000_000_000L);
+        assertThat(snapshot.getMin()).isLessThanOrEqualTo(1_000_000L);
+    }
+
+    @Test
+    public void testExtremeValues() {
+        reservoir.update(-5);
+        reservoir.update(Long.MAX_VALUE);
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.getMin()).isEqualTo(0);
+        // Recorded as the highest trackable value
+        long highest = TimeUnit.MINUTES.toNanos(1);
+        assertThat(snapshot.getMax()).isBetween(highest, highest + highest / 100);
+    }
+
+    @Test
+    public void testSizedByHighestTrackableValue() {
+        LogLinearReservoir small = new LogLinearReservoir(1000, 2);
+        // Values below 256 are exact, values below 512 share buckets of two, and the rest share buckets of four
+        assertThat(small.getBucketIndex(1000) + 1).isEqualTo(256 + 128 + 123);
+        assertThat(small.getHighestValue(small.getBucketIndex(999)) - small.getLowestValue(small.getBucketIndex(999))).isEqualTo(3);
+    }
+
+    @Test
+    public void testStaleIntervalsDropped() {
+        reservoir.update(10);
+        clock.tick += TimeUnit.MINUTES.toNanos(3);
+        assertThat(reservoir.getSnapshot().getValues()).isEmpty();
+    }
+
+    @Test
+    public void testSnapshotsCoverPreviousAndCurrentInterval() {
+        reservoir.update(10);
+        clock.tick += TimeUnit.MINUTES.toNanos(1);
+        reservoir.update(20);
+        // Rolls over to a new interval, but still includes the values from the previous one
+        assertThat(reservoir.getSnapshot().getValues()).containsExactly(10, 20);
+        reservoir.update(30);
+        clock.tick += TimeUnit.MINUTES.toNanos(1);
+        assertThat(reservoir.getSnapshot().getValues()).containsExactly(30);
+        clock.tick += TimeUnit.MINUTES.toNanos(1);
+        assertThat(reservoir.getSnapshot().getValues()).isEmpty();
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isZero();
+        assertThat(snapshot.getMax()).isZero();
+        assertThat(snapshot.getMean()).isZero();
+        assertThat(snapshot.getStdDev()).isZero();
+    }
+}
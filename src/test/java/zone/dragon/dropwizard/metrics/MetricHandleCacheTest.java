@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricHandleCacheTest {
+    private final AtomicInteger namesFormatted = new AtomicInteger();
+
+    private boolean requestScoped;
+
+    private MetricRegistry registry;
+
+    private MetricHandleCache cache;
+
+    private Method method;
+
+    @BeforeEach
+    public void setUp() throws NoSuchMethodException {
+        registry = new MetricRegistry();
+        cache = createCache(null);
+        method = MetricHandleCacheTest.class.getDeclaredMethod("setUp");
+    }
+
+    private MetricHandleCache createCache(DimensionalMetricRegistry dimensionalMetricRegistry) {
+        return new MetricHandleCache(registry, new MetricNameService() {
+            @Override
+            public String getFormattedMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
+                namesFormatted.incrementAndGet();
+                return ((Method) injectionSite).getName();
+            }
+
+            @Override
+            public MetricName getMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
+                return MetricName.of(((Method) injectionSite).getName());
+            }
+
+            @Override
+            public boolean isRequestScoped(AnnotatedElement injectionSite, Type metricType) {
+                return requestScoped;
+            }
+        }, dimensionalMetricRegistry);
+    }
+
+    @Test
+    public void testMetricResolvedOnce() {
+        Timer first = cache.getMetric(method, Timer.class, MetricRegistry::timer);
+        Timer second = cache.getMetric(method, Timer.class, MetricRegistry::timer);
+        assertThat(second).isSameAs(first);
+        assertThat(registry.getTimers()).containsEntry("setUp", first);
+        assertThat(namesFormatted).hasValue(1);
+    }
+
+    @Test
+    public void testMetricsCreatedThroughDimensionalRegistry() {
+        DimensionalMetricRegistry dimensionalMetricRegistry = new DimensionalMetricRegistry(registry, null);
+        cache = createCache(dimensionalMetricRegistry);
+        Supplier<Timer> timer = cache.bind(method, Timer.class, MetricRegistry::timer);
+        assertThat(dimensionalMetricRegistry.getMetrics()).containsEntry(MetricName.of("setUp"), timer.get());
+        assertThat(namesFormatted).hasValue(0);
+        registry.remove("setUp");
+        assertThat(dimensionalMetricRegistry.getMetrics()).containsEntry(MetricName.of("setUp"), timer.get());
+    }
+
+    @Test
+    public void testBoundMetricReResolvedAfterRemoval() {
+        Supplier<Timer> timer = cache.bind(method, Timer.class, MetricRegistry::timer);
+        Timer original = timer.get();
+        registry.remove("setUp");
+        Timer replacement = timer.get();
+        assertThat(replacement).isNotSameAs(original);
+        assertThat(registry.getTimers()).containsEntry("setUp", replacement);
+    }
+
+    @Test
+    public void testBoundHandleSharedAfterRemoval() {
+        Supplier<Timer> timer = cache.bind(method, Timer.class, MetricRegistry::timer);
+        registry.remove("setUp");
+        Supplier<Timer> rebound = cache.bind(method, Timer.class, MetricRegistry::timer);
+        assertThat(rebound).isSameAs(timer);
+        assertThat(timer.get()).isSameAs(rebound.get()).isSameAs(registry.getTimers().get("setUp"));
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRemovalOnlyEvictsMatchingHandles() throws NoSuchMethodException {
+        Method other = MetricHandleCacheTest.class.getDeclaredMethod("testRemovalOnlyEvictsMatchingHandles");
+        Timer original = cache.getMetric(method, Timer.class, MetricRegistry::timer);
+        Timer unrelated = cache.getMetric(other, Timer.class, MetricRegistry::timer);
+        assertThat(cache.size()).isEqualTo(2);
+        registry.remove("setUp");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getMetric(other, Timer.class, MetricRegistry::timer)).isSameAs(unrelated);
+        assertThat(cache.getMetric(method, Timer.class, MetricRegistry::timer)).isNotSameAs(original);
+        assertThat(namesFormatted).hasValue(3);
+    }
+
+    @Test
+    public void testRemovalDropsRequestScopedHandles() throws NoSuchMethodException {
+        requestScoped = true;
+        Method other = MetricHandleCacheTest.class.getDeclaredMethod("testRemovalDropsRequestScopedHandles");
+        Timer original = cache.getMetric(method, Timer.class, MetricRegistry::timer);
+        cache.getMetric(other, Timer.class, MetricRegistry::timer);
+        assertThat(cache.size()).isEqualTo(2);
+        registry.remove("setUp");
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getMetric(method, Timer.class, MetricRegistry::timer)).isNotSameAs(original);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
+import com.codahale.metrics.Timer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReservoirFactoryTest {
+    private static class Sites {
+        public void unannotated() {}
+
+        @MetricReservoir(ReservoirType.LOCK_FREE_EXPONENTIALLY_DECAYING)
+        public void lockFree() {}
+
+        @MetricReservoir(ReservoirType.DEFAULT)
+        public void explicitDefault() {}
+    }
+
+    private final ReservoirFactory reservoirFactory = new ReservoirFactory();
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    private static Method site(String name) throws NoSuchMethodException {
+        return Sites.class.getMethod(name);
+    }
+
+    @Test
+    public void testRegistryDefaultUsedWithoutSelection() throws NoSuchMethodException {
+        assertThat(reservoirFactory.getReservoirType(site("unannotated"))).isEqualTo(ReservoirType.DEFAULT);
+        assertThat(reservoirFactory.getReservoirType(null)).isEqualTo(ReservoirType.DEFAULT);
+        Timer timer = reservoirFactory.timerSupplier(site("unannotated")).get(registry, "timer");
+        assertThat(timer).isSameAs(registry.timer("timer"));
+    }
+
+    @Test
+    public void testAnnotationSelectsReservoir() throws NoSuchMethodException {
+        reservoirFactory.setDefaultType(ReservoirType.SLIDING_TIME_WINDOW);
+        assertThat(reservoirFactory.getReservoirType(site("lockFree"))).isEqualTo(ReservoirType.LOCK_FREE_EXPONENTIALLY_DECAYING);
+        assertThat(reservoirFactory.getReservoirType(site("explicitDefault"))).isEqualTo(ReservoirType.SLIDING_TIME_WINDOW);
+        assertThat(reservoirFactory.getReservoirType(site("unannotated"))).isEqualTo(ReservoirType.SLIDING_TIME_WINDOW);
+    }
+
+    @Test
+    public void testSuppliersCreateSelectedReservoir() throws NoSuchMethodException {
+        Timer timer = reservoirFactory.timerSupplier(site("lockFree")).get(registry, "timer");
+        timer.update(Duration.ofMillis(5));
+        assertThat(registry.getTimers()).containsEntry("timer", timer);
+        assertThat(timer.getSnapshot().getMax()).isEqualTo(5_000_000L);
+        Histogram histogram = reservoirFactory.histogramSupplier(site("lockFree")).get(registry, "histogram");
+        assertThat(registry.getHistograms()).containsEntry("histogram", histogram);
+    }
+
+    @Test
+    public void testReservoirTypesCreateReservoirs() {
+        assertThat(ReservoirType.EXPONENTIALLY_DECAYING.createReservoir()).isInstanceOf(ExponentiallyDecayingReservoir.class);
+        assertThat(ReservoirType.LOCK_FREE_EXPONENTIALLY_DECAYING.createReservoir())
+            .isInstanceOf(LockFreeExponentiallyDecayingReservoir.class);
+        assertThat(ReservoirType.SLIDING_TIME_WINDOW.createReservoir()).isInstanceOf(SlidingTimeWindowArrayReservoir.class);
+        assertThatThrownBy(ReservoirType.DEFAULT::createReservoir).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Type;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TaggedMetricRegistryTest {
+    private static class PathMetricNameService implements MetricNameService {
+        private String path = "a";
+
+        @Override
+        public String getFormattedMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
+            return getMetricName(injectionSite, metricType, baseName).toString();
+        }
+
+        @Override
+        public MetricName getMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
+            return MetricName.of(baseName).withTag("path", path);
+        }
+    }
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    private final PathMetricNameService nameService = new PathMetricNameService();
+
+    private final TaggedMetricRegistry registry = new TaggedMetricRegistry(metrics, nameService);
+
+    @Test
+    public void testUnlimitedByDefault() {
+        for (int i = 0; i < 100; i++) {
+            nameService.path = "p" + i;
+            registry.counter("requests").inc();
+        }
+        assertThat(registry.getMaxTagCombinations()).isEqualTo(TaggedMetricRegistry.UNLIMITED_TAG_COMBINATIONS);
+        assertThat(metrics.getCounters()).hasSize(100);
+    }
+
+    @Test
+    public void testCombinationsPastLimitAreFolded() {
+        registry.setMaxTagCombinations(2);
+        for (int i = 0; i < 5; i++) {
+            nameService.path = "p" + i;
+            registry.counter("requests").inc();
+        }
+        assertThat(metrics.getCounters()).containsOnlyKeys(
+            "requests{path=p0}",
+            "requests{path=p1}",
+            "requests{path=other}",
+            "requests.tagOverflow"
+        );
+        assertThat(metrics.counter("requests{path=other}").getCount()).isEqualTo(3);
+        assertThat(metrics.counter("requests.tagOverflow").getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testExistingCombinationsAreReusedAtLimit() {
+        registry.setMaxTagCombinations(1);
+        nameService.path = "p0";
+        registry.timer("latency");
+        registry.timer("latency");
+        nameService.path = "p1";
+        registry.timer("latency");
+        nameService.path = "p0";
+        registry.timer("latency");
+        assertThat(metrics.getTimers()).containsOnlyKeys("latency{path=p0}", "latency{path=other}");
+        assertThat(metrics.counter("latency.tagOverflow").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLimitIsPerBaseName() {
+        registry.setMaxTagCombinations(1);
+        registry.meter("first");
+        registry.meter("second");
+        assertThat(metrics.getMeters()).containsOnlyKeys("first{path=a}", "second{path=a}");
+    }
+
+    @Test
+    public void testIdleMetricsRemoved() throws InterruptedException {
+        registry.setIdleExpiry(Duration.ofMillis(1));
+        registry.counter("requests");
+        Thread.sleep(10);
+        registry.removeIdleMetrics();
+        assertThat(metrics.getCounters()).isEmpty();
+    }
+
+    @Test
+    public void testUpdatedMetricsKept() throws InterruptedException {
+        registry.setIdleExpiry(Duration.ofMillis(1));
+        registry.counter("requests").inc();
+        Thread.sleep(10);
+        registry.removeIdleMetrics();
+        assertThat(metrics.getCounters()).containsOnlyKeys("requests{path=a}");
+        Thread.sleep(10);
+        registry.removeIdleMetrics();
+        assertThat(metrics.getCounters()).isEmpty();
+    }
+
+    @Test
+    public void testRemovedMetricsReleaseTagCombinations() throws InterruptedException {
+        registry.setMaxTagCombinations(1);
+        registry.setIdleExpiry(Duration.ofMillis(1));
+        registry.counter("requests");
+        Thread.sleep(10);
+        registry.removeIdleMetrics();
+        nameService.path = "b";
+        registry.counter("requests");
+        assertThat(metrics.getCounters()).containsOnlyKeys("requests{path=b}");
+    }
+
+    @Test
+    public void testUntaggedAndRegisteredMetricsNeverExpire() throws InterruptedException {
+        registry.setIdleExpiry(Duration.ofMillis(1));
+        metrics.counter("untagged");
+        registry.register("registered", new Counter());
+        Thread.sleep(10);
+        registry.removeIdleMetrics();
+        assertThat(metrics.getCounters()).hasSize(2);
+    }
+
+    @Test
+    public void testInvalidLimitRejected() {
+        assertThatThrownBy(() -> registry.setMaxTagCombinations(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testFoldedAndUnfoldedNamesShareFormatter() {
+        TaggedMetricRegistry formatted = new TaggedMetricRegistry(metrics, () -> nameService, name -> "custom." + name.getName());
+        formatted.counter("unlimited");
+        formatted.setMaxTagCombinations(1);
+        formatted.counter("requests");
+        nameService.path = "b";
+        formatted.counter("requests");
+        assertThat(metrics.getCounters()).containsOnlyKeys("custom.unlimited", "custom.requests", "custom.requests.tagOverflow");
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics.interceptors;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.ConstructorInterceptor;
+import org.aopalliance.intercept.ConstructorInvocation;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.annotation.Counted;
+import com.codahale.metrics.annotation.ExceptionMetered;
+import com.codahale.metrics.annotation.Metered;
+import com.codahale.metrics.annotation.Timed;
+
+import zone.dragon.dropwizard.metrics.MetricHandleCache;
+import zone.dragon.dropwizard.metrics.ReservoirFactory;
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricInterceptorFactoryTest {
+    public static class Intercepted {
+        @Timed
+        public Intercepted() {}
+
+        @Timed
+        public void timed() {}
+
+        @Counted(monotonic = true)
+        public void counted() {}
+
+        @Metered
+        public void metered() {}
+
+        @ExceptionMetered
+        public void exceptionMetered() {}
+    }
+
+    private final AtomicInteger namesFormatted = new AtomicInteger();
+
+    private boolean requestScoped;
+
+    private String request = "first";
+
+    private MetricRegistry registry;
+
+    private MetricHandleCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new MetricRegistry();
+        cache = new MetricHandleCache(registry, new MetricNameService() {
+            @Override
+            public String getFormattedMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
+                namesFormatted.incrementAndGet();
+                return getName(injectionSite) + (requestScoped ? "." + request : "");
+            }
+
+            @Override
+            public MetricName getMetricName(AnnotatedElement injectionSite, Type metricType, String baseName) {
+                MetricName name = MetricName.of(getName(injectionSite));
+                return requestScoped ? name.withTag("request", request) : name;
+            }
+
+            @Override
+            public boolean isRequestScoped(AnnotatedElement injectionSite, Type metricType) {
+                return requestScoped;
+            }
+        });
+    }
+
+    private static String getName(AnnotatedElement injectionSite) {
+        return injectionSite instanceof Constructor ? "new" : ((Executable) injectionSite).getName();
+    }
+
+    private static Method getMethod(String name) throws NoSuchMethodException {
+        return Intercepted.class.getDeclaredMethod(name);
+    }
+
+    private static MethodInvocation invocation(Method method) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(method);
+        when(invocation.proceed()).thenReturn("result");
+        return invocation;
+    }
+
+    private static void invoke(MethodInterceptor interceptor, MethodInvocation invocation, int times) throws Throwable {
+        for (int i = 0; i < times; i++) {
+            assertThat(interceptor.invoke(invocation)).isEqualTo("result");
+        }
+    }
+
+    @Test
+    public void testTimerResolvedOnce() throws Throwable {
+        Method method = getMethod("timed");
+        MethodInterceptor interceptor = new TimedInterceptorFactory(cache, new ReservoirFactory()).provide(
+            method,
+            method.getAnnotation(Timed.class)
+        );
+        invoke(interceptor, invocation(method), 3);
+        assertThat(registry.timer("timed").getCount()).isEqualTo(3);
+        assertThat(namesFormatted).hasValue(1);
+    }
+
+    @Test
+    public void testConstructorTimerResolvedOnce() throws Throwable {
+        Constructor<?> constructor = Intercepted.class.getConstructor();
+        ConstructorInterceptor interceptor = new TimedInterceptorFactory(cache, new ReservoirFactory()).provide(
+            constructor,
+            constructor.getAnnotation(Timed.class)
+        );
+        ConstructorInvocation invocation = mock(ConstructorInvocation.class);
+        when(invocation.proceed()).thenReturn(new Intercepted());
+        for (int i = 0; i < 3; i++) {
+            interceptor.construct(invocation);
+        }
+        assertThat(registry.timer("new").getCount()).isEqualTo(3);
+        assertThat(namesFormatted).hasValue(1);
+    }
+
+    @Test
+    public void testCounterResolvedOnce() throws Throwable {
+        Method method = getMethod("counted");
+        MethodInterceptor interceptor = new CountedInterceptorFactory(cache).provide(method, method.getAnnotation(Counted.class));
+        invoke(interceptor, invocation(method), 3);
+        assertThat(registry.counter("counted").getCount()).isEqualTo(3);
+        assertThat(namesFormatted).hasValue(1);
+    }
+
+    @Test
+    public void testMeterResolvedOnce() throws Throwable {
+        Method method = getMethod("metered");
+        MethodInterceptor interceptor = new MeteredInterceptorFactory(cache).provide(method, method.getAnnotation(Metered.class));
+        invoke(interceptor, invocation(method), 3);
+        assertThat(registry.meter("metered").getCount()).isEqualTo(3);
+        assertThat(namesFormatted).hasValue(1);
+    }
+
+    @Test
+    public void testExceptionMeterResolvedOnce() throws Throwable {
+        Method method = getMethod("exceptionMetered");
+        MethodInterceptor interceptor = new ExceptionMeteredInterceptorFactory(cache).provide(
+            method,
+            method.getAnnotation(ExceptionMetered.class)
+        );
+        MethodInvocation invocation = invocation(method);
+        when(invocation.proceed()).thenThrow(new IllegalStateException());
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> interceptor.invoke(invocation)).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(registry.meter("exceptionMetered").getCount()).isEqualTo(3);
+        assertThat(namesFormatted).hasValue(1);
+    }
+
+    @Test
+    public void testRequestScopedTimerResolvedPerRequest() throws Throwable {
+        requestScoped = true;
+        Method method = getMethod("timed");
+        MethodInterceptor interceptor = new TimedInterceptorFactory(cache, new ReservoirFactory()).provide(
+            method,
+            method.getAnnotation(Timed.class)
+        );
+        MethodInvocation invocation = invocation(method);
+        invoke(interceptor, invocation, 2);
+        request = "second";
+        invoke(interceptor, invocation, 1);
+        request = "first";
+        invoke(interceptor, invocation, 1);
+        assertThat(registry.getTimers()).containsOnlyKeys("timed.first", "timed.second");
+        assertThat(registry.timer("timed.first").getCount()).isEqualTo(3);
+        assertThat(registry.timer("timed.second").getCount()).isEqualTo(1);
+        // Each request's name is only formatted the first time it is seen
+        assertThat(namesFormatted).hasValue(2);
+    }
+
+    @Test
+    public void testRequestScopedCounterResolvedPerRequest() throws Throwable {
+        requestScoped = true;
+        Method method = getMethod("counted");
+        MethodInterceptor interceptor = new CountedInterceptorFactory(cache).provide(method, method.getAnnotation(Counted.class));
+        MethodInvocation invocation = invocation(method);
+        invoke(interceptor, invocation, 1);
+        request = "second";
+        invoke(interceptor, invocation, 2);
+        assertThat(registry.getCounters()).containsOnlyKeys("counted.first", "counted.second");
+        assertThat(registry.counter("counted.first").getCount()).isEqualTo(1);
+        assertThat(registry.counter("counted.second").getCount()).isEqualTo(2);
+    }
+}
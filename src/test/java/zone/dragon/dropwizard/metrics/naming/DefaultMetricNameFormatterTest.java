@@ -47,14 +47,32 @@ public class DefaultMetricNameFormatterTest {
 
     @Test
     public void testTaggedNameMulti() {
-        MetricName name = MetricName.of("test").addTag("key", "value").addTag("key2", "value2");
+        MetricName name = MetricName.of("test").withTag("key", "value").withTag("key2", "value2");
         String formattedName = formatter.formatName(name);
         assertThat(formattedName).isEqualTo("NPtestNSTSPTPkeyKVvalueTXTETPkey2KVvalue2TXTSS");
     }
 
+    @Test
+    public void testRepeatedNameCached() {
+        MetricName name = MetricName.of("test").withTag("key", "value");
+        assertThat(formatter.formatName(name)).isSameAs(formatter.formatName(name));
+    }
+
+    @Test
+    public void testDefaultFormat() {
+        MetricName name = MetricName.of("test").withTag("b", "2").withTag("a", "1");
+        assertThat(new DefaultMetricNameFormatter().formatName(name)).isEqualTo("test{a=1, b=2}");
+    }
+
+    @Test
+    public void testSegmentsNotTreatedAsFormatPatterns() {
+        DefaultMetricNameFormatter percentFormatter = new DefaultMetricNameFormatter("%s", null, "[", null, "%", ",", null, "]");
+        assertThat(percentFormatter.formatName(MetricName.of("test").withTag("key", "value"))).isEqualTo("%stest[key%value]");
+    }
+
     @Test
     public void testTaggedNameSingle() {
-        MetricName name = MetricName.of("test").addTag("key", "value");
+        MetricName name = MetricName.of("test").withTag("key", "value");
         String formattedName = formatter.formatName(name);
         assertThat(formattedName).isEqualTo("NPtestNSTSPTPkeyKVvalueTXTSS");
     }
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics.naming;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Singleton;
+
+import org.glassfish.hk2.api.DynamicConfiguration;
+import org.glassfish.hk2.api.DynamicConfigurationListener;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.api.ServiceLocatorFactory;
+import org.glassfish.hk2.utilities.BuilderHelper;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.Timer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DefaultMetricNameServiceTest {
+    private static class CountingFilter implements MetricNameFilter {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final String tagName;
+
+        private final boolean requestScoped;
+
+        private CountingFilter(String tagName, boolean requestScoped) {
+            this.tagName = tagName;
+            this.requestScoped = requestScoped;
+        }
+
+        @Override
+        public MetricName buildName(MetricName metricName, AnnotatedElement injectionSite, Type metricType) {
+            return metricName.withTag(tagName, String.valueOf(calls.incrementAndGet()));
+        }
+
+        @Override
+        public boolean isRequestScoped() {
+            return requestScoped;
+        }
+    }
+
+    private ServiceLocator locator;
+
+    private MetricNameService createService(MetricNameFilter... filters) {
+        // ServiceLocatorUtilities.bind(Binder...) reuses the same named locator, so each service gets its own
+        locator = ServiceLocatorFactory.getInstance().create(null);
+        ServiceLocatorUtilities.bind(locator, new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(DefaultMetricNameService.class).to(MetricNameService.class).to(DynamicConfigurationListener.class).in(Singleton.class);
+                for (int i = 0; i < filters.length; i++) {
+                    // Earlier filters are ranked higher, so they run first
+                    bind(filters[i]).to(MetricNameFilter.class).ranked(filters.length - i);
+                }
+            }
+        });
+        return locator.getService(MetricNameService.class);
+    }
+
+    @Test
+    public void testStaticFiltersCached() {
+        CountingFilter staticFilter = new CountingFilter("static", false);
+        MetricNameService service = createService(staticFilter);
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{static=1}");
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{static=1}");
+        assertThat(service.isRequestScoped(null, Timer.class)).isFalse();
+    }
+
+    @Test
+    public void testRequestScopedFiltersRunEveryTime() {
+        CountingFilter staticFilter = new CountingFilter("static", false);
+        CountingFilter dynamicFilter = new CountingFilter("dynamic", true);
+        CountingFilter trailingFilter = new CountingFilter("trailing", false);
+        MetricNameService service = createService(staticFilter, dynamicFilter, trailingFilter);
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{dynamic=1, static=1, trailing=1}");
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{dynamic=2, static=1, trailing=2}");
+        assertThat(service.isRequestScoped(null, Timer.class)).isTrue();
+    }
+
+    @Test
+    public void testFiltersRequestScopedByDefault() {
+        MetricNameFilter filter = (metricName, injectionSite, metricType) -> metricName;
+        assertThat(filter.isRequestScoped()).isTrue();
+        assertThat(createService(filter).isRequestScoped(null, Timer.class)).isTrue();
+    }
+
+    @Test
+    public void testFilterChainRefreshedWhenFilterAdded() {
+        CountingFilter staticFilter = new CountingFilter("static", false);
+        MetricNameService service = createService(staticFilter);
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{static=1}");
+        DynamicConfiguration config = ServiceLocatorUtilities.createDynamicConfiguration(locator);
+        CountingFilter addedFilter = new CountingFilter("added", false);
+        config.addActiveDescriptor(BuilderHelper.createConstantDescriptor(addedFilter, null, MetricNameFilter.class));
+        config.commit();
+        // The refreshed chain starts with an empty static name cache, so the existing filter runs again
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{added=1, static=2}");
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{added=1, static=2}");
+    }
+
+    @Test
+    public void testFilterChainKeptWhenOtherServicesChange() {
+        CountingFilter staticFilter = new CountingFilter("static", false);
+        MetricNameService service = createService(staticFilter);
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{static=1}");
+        ServiceLocatorUtilities.addOneConstant(locator, "unrelated");
+        assertThat(service.getFormattedMetricName(null, Timer.class, "test")).isEqualTo("test{static=1}");
+    }
+}
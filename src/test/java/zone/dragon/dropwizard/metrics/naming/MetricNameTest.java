@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics.naming;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class MetricNameTest {
+    @Test
+    public void testTagsSortedByKey() {
+        MetricName name = MetricName.of("test").withTag("b", "2").withTag("c", "3").withTag("a", "1");
+        assertThat(name.getTags()).containsExactly(
+            entry("a", "1"),
+            entry("b", "2"),
+            entry("c", "3")
+        );
+        assertThat(name.getTagCount()).isEqualTo(3);
+        assertThat(name.getTagKey(1)).isEqualTo("b");
+        assertThat(name.getTagValue(2)).isEqualTo("3");
+    }
+
+    @Test
+    public void testWithTagDoesNotModifyOriginal() {
+        MetricName original = MetricName.of("test").withTag("key", "value");
+        MetricName updated = original.withTag("key", "other").withName("renamed");
+        assertThat(original.getName()).isEqualTo("test");
+        assertThat(original.getTag("key")).isEqualTo("value");
+        assertThat(updated.getName()).isEqualTo("renamed");
+        assertThat(updated.getTag("key")).isEqualTo("other");
+    }
+
+    @Test
+    public void testEqualNamesAreInterned() {
+        MetricName first = MetricName.of("interned").withTag("key", "value").withTag("key2", "value2");
+        MetricName second = MetricName.of("interned").withTag("key2", "value2").withTag("key", "value");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void testEquality() {
+        MetricName built = MetricName.of("test").withTag("a", "1").withTag("b", "2");
+        MetricName fromMap = MetricName.of("test", ImmutableMap.of("b", "2", "a", "1"));
+        assertThat(fromMap).isEqualTo(built).hasSameHashCodeAs(built);
+        assertThat(MetricName.of(null)).isEqualTo(MetricName.of(null)).isNotEqualTo(MetricName.of("test"));
+    }
+
+    @Test
+    public void testNamesFromMapsAreInterned() {
+        MetricName first = MetricName.of("interned", ImmutableMap.of("b", "2", "a", "1"));
+        assertThat(MetricName.of("interned", ImmutableMap.of("a", "1", "b", "2"))).isSameAs(first);
+        assertThat(MetricName.of("interned", first.getTags())).isSameAs(first);
+        assertThat(first.withTags(ImmutableMap.of("c", "3")).getTags()).containsExactly(entry("c", "3"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedAdaptersReturnNewNames() {
+        MetricName name = MetricName.of("test");
+        assertThat(name.setName("other").addTag("b", "2").addTag("a", "1")).isEqualTo(
+            MetricName.of("other", ImmutableMap.of("a", "1", "b", "2")));
+        assertThat(name.setTags(ImmutableMap.of("key", "value"))).isEqualTo(name.withTag("key", "value"));
+        assertThat(name.getTags()).isEmpty();
+        assertThat(new MetricName("test", ImmutableMap.of("key", "value"))).isEqualTo(name.withTag("key", "value"));
+    }
+
+    @Test
+    public void testAllTagsMerged() {
+        MetricName name = MetricName.of("test", ImmutableMap.of("a", "1", "c", "3"));
+        MetricName tags = MetricName.of(null, ImmutableMap.of("b", "2", "c", "4"));
+        assertThat(name.withAllTags(tags)).isEqualTo(MetricName.of("test", ImmutableMap.of("a", "1", "b", "2", "c", "4")));
+        assertThat(name.withAllTags(tags).withAllTags(tags)).isSameAs(name.withAllTags(tags));
+        assertThat(MetricName.of("test").withAllTags(tags)).isEqualTo(MetricName.of("test", ImmutableMap.of("b", "2", "c", "4")));
+    }
+
+    @Test
+    public void testTagsUnmodifiable() {
+        MetricName name = MetricName.of("test").withTag("key", "value");
+        assertThatThrownBy(() -> name.getTags().put("other", "value")).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
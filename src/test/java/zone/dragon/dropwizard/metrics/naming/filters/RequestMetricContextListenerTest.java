@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016-2023 Bryan Harclerode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package zone.dragon.dropwizard.metrics.naming.filters;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+
+import org.glassfish.jersey.client.JerseyClientBuilder;
+import org.glassfish.jersey.client.JerseyWebTarget;
+import org.glassfish.jersey.process.internal.RequestScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.codahale.metrics.Timer;
+
+import io.dropwizard.core.Application;
+import io.dropwizard.core.Configuration;
+import io.dropwizard.core.setup.Bootstrap;
+import io.dropwizard.core.setup.Environment;
+import io.dropwizard.testing.junit5.DropwizardAppExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import zone.dragon.dropwizard.HK2Bundle;
+import zone.dragon.dropwizard.metrics.naming.MetricName;
+import zone.dragon.dropwizard.metrics.naming.MetricNameFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+public class RequestMetricContextListenerTest {
+    public static final DropwizardAppExtension<Configuration> RULE = new DropwizardAppExtension<>(ContextApp.class, new Configuration());
+
+    private static final Queue<String> EVENTS = new ConcurrentLinkedQueue<>();
+
+    private static final Queue<String> NAMES = new ConcurrentLinkedQueue<>();
+
+    private static final ResourceClassMetricNameFilter RESOURCE_CLASS_FILTER = new ResourceClassMetricNameFilter();
+
+    private static final ResourceMethodMetricNameFilter RESOURCE_METHOD_FILTER = new ResourceMethodMetricNameFilter();
+
+    private static final HttpMethodMetricNameFilter HTTP_METHOD_FILTER = new HttpMethodMetricNameFilter();
+
+    private static final List<RequestScopedMetricNameFilter> FILTERS = List.of(
+        RESOURCE_CLASS_FILTER,
+        RESOURCE_METHOD_FILTER,
+        HTTP_METHOD_FILTER
+    );
+
+    public static class ContextApp extends Application<Configuration> {
+        @Override
+        public void initialize(Bootstrap<Configuration> bootstrap) {
+            HK2Bundle<Configuration> bundle = HK2Bundle.addTo(bootstrap);
+            for (MetricNameFilter filter : FILTERS) {
+                bundle.bind(filter).to(MetricNameFilter.class);
+            }
+        }
+
+        @Override
+        public void run(Configuration configuration, Environment environment) {
+            environment.jersey().register(ContextResource.class);
+            environment.jersey().register(NameResource.class);
+            environment.jersey().register(ContextProbe.class);
+            environment.jersey().register(FailureMapper.class);
+        }
+    }
+
+    @Path("/context")
+    public static class ContextResource {
+        @GET
+        public String get() {
+            record("method");
+            // No request scope or providers are set, so this can only tag the name from the published context
+            MetricName name = new ResourceMethodMetricNameFilter().buildName(MetricName.of("test"), null, null);
+            EVENTS.add("tag:" + name.getTag(ResourceMethodMetricNameFilter.DEFAULT_TAG_NAME));
+            return "ok";
+        }
+
+        @GET
+        @Path("fail")
+        public String fail() {
+            record("method");
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    @Path("/names")
+    public static class NameResource {
+        @Inject
+        public NameResource(Provider<ResourceInfo> resourceInfo, Provider<Request> request, RequestScope requestScope) {
+            // Lets the filters resolve their tags through the request scope, as they did before contexts were precomputed
+            for (RequestScopedMetricNameFilter filter : FILTERS) {
+                filter.setResourceInfoProvider(requestScope);
+            }
+            RESOURCE_CLASS_FILTER.setResourceInfoProvider(resourceInfo);
+            RESOURCE_METHOD_FILTER.setResourceInfoProvider(resourceInfo);
+            HTTP_METHOD_FILTER.setResourceInfoProvider(request);
+        }
+
+        @GET
+        public void get() {
+            recordNames();
+        }
+
+        @Path("sub")
+        public SubResource sub() {
+            return new SubResource();
+        }
+    }
+
+    public static class SubResource {
+        @GET
+        public void get() {
+            recordNames();
+        }
+    }
+
+    /**
+     * Records the name built from the precomputed tags, and the name the filters resolve through the request scope without a context
+     */
+    private static void recordNames() {
+        RequestMetricContext context = RequestMetricContext.current();
+        NAMES.add("precomputed:" + FILTERS.stream().allMatch(context::hasResourceTags));
+        NAMES.add("tags:" + buildName().getTags());
+        RequestMetricContext.clear();
+        try {
+            NAMES.add("tags:" + buildName().getTags());
+        } finally {
+            RequestMetricContext.set(context);
+        }
+    }
+
+    private static MetricName buildName() {
+        MetricName name = MetricName.of("test");
+        for (MetricNameFilter filter : FILTERS) {
+            name = filter.buildName(name, null, Timer.class);
+        }
+        return name;
+    }
+
+    public static class ContextProbe implements ContainerRequestFilter, ContainerResponseFilter {
+        @Override
+        public void filter(ContainerRequestContext requestContext) {
+            record("before");
+        }
+
+        @Override
+        public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+            record("after");
+        }
+    }
+
+    public static class FailureMapper implements ExceptionMapper<IllegalStateException> {
+        @Override
+        public Response toResponse(IllegalStateException exception) {
+            record("mapped");
+            return Response.serverError().build();
+        }
+    }
+
+    private static void record(String event) {
+        RequestMetricContext context = RequestMetricContext.current();
+        EVENTS.add(event + ":" + (context == null ? "none" : context.getResourceMethodName() + "/" + context.getHttpMethod()));
+    }
+
+    protected JerseyWebTarget client = JerseyClientBuilder.createClient().target(String.format("http://localhost:%d", RULE.getLocalPort()));
+
+    @BeforeEach
+    public void setUp() {
+        EVENTS.clear();
+        NAMES.clear();
+    }
+
+    @Test
+    public void testContextPublishedWhileResourceMethodRuns() {
+        assertThat(client.path("context").request().get(String.class)).isEqualTo("ok");
+        assertThat(EVENTS).containsExactly("before:none", "method:get/GET", "tag:get", "after:none");
+    }
+
+    @Test
+    public void testContextClearedWhenResourceMethodThrows() {
+        // Jetty reuses its threads, so repeat the request to give a leaked context the chance to show up on the next one
+        for (int i = 0; i < 5; i++) {
+            EVENTS.clear();
+            assertThat(client.path("context").path("fail").request().get().getStatus()).isEqualTo(500);
+            assertThat(EVENTS).containsExactly("before:none", "method:fail/GET", "mapped:none", "after:none");
+        }
+        EVENTS.clear();
+        client.path("context").request().get(String.class);
+        assertThat(EVENTS).startsWith("before:none");
+    }
+
+    @Test
+    public void testPrecomputedTagsMatchScopeResolvedTags() {
+        assertThat(client.path("names").request().get().getStatus()).isEqualTo(204);
+        assertThat(NAMES).containsExactly(
+            "precomputed:true",
+            "tags:{action=get, httpOp=GET, resource=NameResource}",
+            "tags:{action=get, httpOp=GET, resource=NameResource}"
+        );
+    }
+
+    @Test
+    public void testHeadRequestsHandledByGetMethodsShareGetContext() {
+        assertThat(client.path("names").request().head().getStatus()).isEqualTo(204);
+        assertThat(NAMES).containsExactly(
+            "precomputed:true",
+            "tags:{action=get, httpOp=GET, resource=NameResource}",
+            "tags:{action=get, httpOp=GET, resource=NameResource}"
+        );
+    }
+
+    @Test
+    public void testSubResourceMethodsPrecomputedOnFirstUse() {
+        for (int i = 0; i < 2; i++) {
+            NAMES.clear();
+            assertThat(client.path("names").path("sub").request().get().getStatus()).isEqualTo(204);
+            assertThat(NAMES).containsExactly(
+                "precomputed:true",
+                "tags:{action=get, httpOp=GET, resource=SubResource}",
+                "tags:{action=get, httpOp=GET, resource=SubResource}"
+            );
+        }
+    }
+}